@@ -0,0 +1,107 @@
+package com.codahale.metrics.benchmarks;
+
+import com.codahale.metrics.Clock;
+import com.codahale.metrics.ExponentiallyDecayingReservoir;
+import com.codahale.metrics.LockFreeExponentiallyDecayingReservoir;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Measures the latency of updates while another thread keeps moving the clock forward by an hour,
+ * so that the reservoirs are rescaled over and over again.
+ */
+@State(Scope.Group)
+public class ExponentiallyDecayingReservoirRescaleBenchmark {
+    // lets the updating threads refill the reservoir between two rescales
+    private static final long RESCALE_PAUSE_TOKENS = 10_000L;
+
+    private final HourSkippingClock clock = new HourSkippingClock();
+    private final ExponentiallyDecayingReservoir exponential =
+            new ExponentiallyDecayingReservoir(1028, 0.015, clock);
+    private final LockFreeExponentiallyDecayingReservoir lockFree =
+            new LockFreeExponentiallyDecayingReservoir(1028, 0.015, clock);
+
+    // It's intentionally not declared as final to avoid constant folding
+    private long nextValue = 0xFBFBABBA;
+
+    @Benchmark
+    @Group("exponential")
+    @GroupThreads(3)
+    public Object exponentialUpdate() {
+        exponential.update(nextValue);
+        return exponential;
+    }
+
+    @Benchmark
+    @Group("exponential")
+    @GroupThreads(1)
+    public Object exponentialRescale() {
+        clock.skipHour();
+        exponential.update(nextValue);
+        Blackhole.consumeCPU(RESCALE_PAUSE_TOKENS);
+        return exponential;
+    }
+
+    @Benchmark
+    @Group("lockFree")
+    @GroupThreads(3)
+    public Object lockFreeUpdate() {
+        lockFree.update(nextValue);
+        return lockFree;
+    }
+
+    @Benchmark
+    @Group("lockFree")
+    @GroupThreads(1)
+    public Object lockFreeRescale() {
+        clock.skipHour();
+        lockFree.update(nextValue);
+        Blackhole.consumeCPU(RESCALE_PAUSE_TOKENS);
+        return lockFree;
+    }
+
+    private static class HourSkippingClock extends Clock {
+        private final AtomicLong offset = new AtomicLong();
+
+        void skipHour() {
+            offset.addAndGet(TimeUnit.HOURS.toNanos(1));
+        }
+
+        @Override
+        public long getTick() {
+            return System.nanoTime() + offset.get();
+        }
+
+        @Override
+        public long getTime() {
+            return System.currentTimeMillis() + TimeUnit.NANOSECONDS.toMillis(offset.get());
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+            .include(".*" + ExponentiallyDecayingReservoirRescaleBenchmark.class.getSimpleName() + ".*")
+            .warmupIterations(5)
+            .measurementIterations(10)
+            .measurementTime(TimeValue.seconds(3))
+            .timeUnit(TimeUnit.MICROSECONDS)
+            .mode(Mode.SampleTime)
+            .forks(1)
+            .build();
+
+        new Runner(opt).run();
+    }
+}
@@ -1,6 +1,8 @@
 package com.codahale.metrics.benchmarks;
 
+import com.codahale.metrics.CachedClock;
 import com.codahale.metrics.Meter;
+import com.codahale.metrics.MeterTicker;
 import org.openjdk.jmh.annotations.Benchmark;
 import org.openjdk.jmh.annotations.Scope;
 import org.openjdk.jmh.annotations.State;
@@ -9,10 +11,14 @@ import org.openjdk.jmh.runner.RunnerException;
 import org.openjdk.jmh.runner.options.Options;
 import org.openjdk.jmh.runner.options.OptionsBuilder;
 
+import java.util.concurrent.TimeUnit;
+
 @State(Scope.Benchmark)
 public class MeterBenchmark {
 
     private final Meter meter = new Meter();
+    private final Meter tickedMeter = new Meter(MeterTicker.defaultTicker());
+    private final Meter cachedClockMeter = new Meter(new CachedClock(1, TimeUnit.MILLISECONDS));
 
     // It's intentionally not declared as final to avoid constant folding
     private long nextValue = 0xFBFBABBA;
@@ -23,6 +29,18 @@ public class MeterBenchmark {
         return meter;
     }
 
+    @Benchmark
+    public Object perfTickedMark() {
+        tickedMeter.mark(nextValue);
+        return tickedMeter;
+    }
+
+    @Benchmark
+    public Object perfCachedClockMark() {
+        cachedClockMeter.mark(nextValue);
+        return cachedClockMeter;
+    }
+
     public static void main(String[] args) throws RunnerException {
         Options opt = new OptionsBuilder()
                 .include(".*" + MeterBenchmark.class.getSimpleName() + ".*")
@@ -0,0 +1,98 @@
+package com.codahale.metrics.benchmarks;
+
+import com.codahale.metrics.ExponentiallyDecayingReservoir;
+import com.codahale.metrics.MetricFilter;
+import com.codahale.metrics.MetricName;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+
+import java.util.SortedMap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+@State(Scope.Benchmark)
+public class MetricRegistryBenchmark {
+
+    private final MetricRegistry registry = new MetricRegistry();
+    private final MetricRegistry sortedRegistry = new MetricRegistry(ExponentiallyDecayingReservoir::new, true);
+    private final MetricFilter timerPrefix = MetricFilter.startsWith(
+            MetricRegistry.name(MetricRegistryBenchmark.class, "timer", "1"));
+    private final MetricName timerName = MetricName.of(MetricRegistryBenchmark.class, "client", "get-requests");
+
+    // It's intentionally not declared as final to avoid constant folding
+    private String method = "get";
+
+    @Setup
+    public void setUp() {
+        populate(registry);
+        populate(sortedRegistry);
+    }
+
+    private static void populate(MetricRegistry registry) {
+        // a registry dominated by counters, with a few timers
+        for (int i = 0; i < 10_000; i++) {
+            registry.counter(MetricRegistry.name(MetricRegistryBenchmark.class, "counter", Integer.toString(i)));
+        }
+        for (int i = 0; i < 100; i++) {
+            registry.timer(MetricRegistry.name(MetricRegistryBenchmark.class, "timer", Integer.toString(i)));
+        }
+    }
+
+    @Benchmark
+    public Timer perfTimerByBuiltName() {
+        return registry.timer(MetricRegistry.name(MetricRegistryBenchmark.class, "client", method + "-requests"));
+    }
+
+    @Benchmark
+    public Timer perfTimerByMetricName() {
+        return registry.resolveTimer(timerName);
+    }
+
+    @Benchmark
+    public SortedMap<String, Timer> perfGetTimers() {
+        return registry.getTimers();
+    }
+
+    @Benchmark
+    public SortedMap<String, Timer> perfGetTimersSorted() {
+        return sortedRegistry.getTimers();
+    }
+
+    @Benchmark
+    public int perfIterateTimersSorted() {
+        int count = 0;
+        for (Timer timer : sortedRegistry.getTimers().values()) {
+            count += timer.getCount() >= 0 ? 1 : 0;
+        }
+        return count;
+    }
+
+    @Benchmark
+    public SortedMap<String, Timer> perfGetPrefixedTimers() {
+        return registry.getTimers(timerPrefix);
+    }
+
+    @Benchmark
+    public SortedMap<String, Timer> perfGetPrefixedTimersSorted() {
+        return sortedRegistry.getTimers(timerPrefix);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(".*" + MetricRegistryBenchmark.class.getSimpleName() + ".*")
+                .warmupIterations(3)
+                .measurementIterations(5)
+                .threads(4)
+                .forks(1)
+                .build();
+
+        new Runner(opt).run();
+    }
+
+}
@@ -1,6 +1,7 @@
 package com.codahale.metrics.benchmarks;
 
 import com.codahale.metrics.ExponentiallyDecayingReservoir;
+import com.codahale.metrics.LogLinearReservoir;
 import com.codahale.metrics.SlidingTimeWindowArrayReservoir;
 import com.codahale.metrics.SlidingTimeWindowReservoir;
 import com.codahale.metrics.SlidingWindowReservoir;
@@ -22,10 +23,12 @@ import java.util.concurrent.TimeUnit;
 public class ReservoirBenchmark {
 
     private final UniformReservoir uniform = new UniformReservoir();
+    private final UniformReservoir skippingUniform = new UniformReservoir(1028, true);
     private final ExponentiallyDecayingReservoir exponential = new ExponentiallyDecayingReservoir();
     private final SlidingWindowReservoir sliding = new SlidingWindowReservoir(1000);
     private final SlidingTimeWindowReservoir slidingTime = new SlidingTimeWindowReservoir(200, TimeUnit.MILLISECONDS);
     private final SlidingTimeWindowArrayReservoir arrTime = new SlidingTimeWindowArrayReservoir(200, TimeUnit.MILLISECONDS);
+    private final LogLinearReservoir logLinear = new LogLinearReservoir();
 
     // It's intentionally not declared as final to avoid constant folding
     private long nextValue = 0xFBFBABBA;
@@ -36,6 +39,12 @@ public class ReservoirBenchmark {
         return uniform;
     }
 
+    @Benchmark
+    public Object perfSkippingUniformReservoir() {
+        skippingUniform.update(nextValue);
+        return skippingUniform;
+    }
+
     @Benchmark
     public Object perfSlidingTimeWindowArrayReservoir() {
         arrTime.update(nextValue);
@@ -60,6 +69,12 @@ public class ReservoirBenchmark {
         return slidingTime;
     }
 
+    @Benchmark
+    public Object perfLogLinearReservoir() {
+        logLinear.update(nextValue);
+        return logLinear;
+    }
+
     public static void main(String[] args) throws RunnerException {
         Options opt = new OptionsBuilder()
             .include(".*" + ReservoirBenchmark.class.getSimpleName() + ".*")
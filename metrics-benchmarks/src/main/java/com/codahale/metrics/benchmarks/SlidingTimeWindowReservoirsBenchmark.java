@@ -3,6 +3,7 @@ package com.codahale.metrics.benchmarks;
 import com.codahale.metrics.SlidingTimeWindowArrayReservoir;
 import com.codahale.metrics.SlidingTimeWindowReservoir;
 import com.codahale.metrics.Snapshot;
+import com.codahale.metrics.StripedSlidingTimeWindowArrayReservoir;
 
 import org.openjdk.jmh.annotations.Benchmark;
 import org.openjdk.jmh.annotations.Group;
@@ -26,6 +27,7 @@ import java.util.concurrent.TimeUnit;
 public class SlidingTimeWindowReservoirsBenchmark {
     private final SlidingTimeWindowReservoir slidingTime = new SlidingTimeWindowReservoir(200, TimeUnit.MILLISECONDS);
     private final SlidingTimeWindowArrayReservoir arrTime = new SlidingTimeWindowArrayReservoir(200, TimeUnit.MILLISECONDS);
+    private final StripedSlidingTimeWindowArrayReservoir stripedArrTime = new StripedSlidingTimeWindowArrayReservoir(200, TimeUnit.MILLISECONDS);
 
     // It's intentionally not declared as final to avoid constant folding
     private long nextValue = 0xFBFBABBA;
@@ -62,6 +64,22 @@ public class SlidingTimeWindowReservoirsBenchmark {
         return snapshot;
     }
 
+    @Benchmark
+    @Group("stripedArrTime")
+    @GroupThreads(3)
+    public Object stripedArrTimeAddMeasurement() {
+        stripedArrTime.update(nextValue);
+        return stripedArrTime;
+    }
+
+    @Benchmark
+    @Group("stripedArrTime")
+    @GroupThreads(1)
+    public Object stripedArrTimeRead() {
+        Snapshot snapshot = stripedArrTime.getSnapshot();
+        return snapshot;
+    }
+
     public static void main(String[] args) throws RunnerException {
         Options opt = new OptionsBuilder()
             .include(".*" + SlidingTimeWindowReservoirsBenchmark.class.getSimpleName() + ".*")
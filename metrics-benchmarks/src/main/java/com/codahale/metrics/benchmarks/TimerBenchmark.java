@@ -0,0 +1,72 @@
+package com.codahale.metrics.benchmarks;
+
+import com.codahale.metrics.LogLinearReservoir;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the allocations of {@link Timer#time()} with {@link Timer#startTick()} and
+ * {@link Timer#stop(long)}. The timer uses a {@link LogLinearReservoir}, which does not allocate on
+ * update, so {@code gc.alloc.rate.norm} only shows the cost of the timing API itself. Also
+ * measures the timers of a switchable registry, while enabled and while disabled.
+ */
+@State(Scope.Benchmark)
+public class TimerBenchmark {
+
+    private final Timer timer = new Timer(new LogLinearReservoir());
+    private final MetricRegistry switchable = new MetricRegistry(LogLinearReservoir::new, false, true);
+    private final Timer enabledTimer = switchable.timer("enabled");
+    private final Timer disabledTimer = switchable.timer("disabled");
+
+    {
+        switchable.setEnabled("disabled", false);
+    }
+
+    @Benchmark
+    public Object perfContext() {
+        // the context escapes, like it does when it is handed over to an async listener
+        final Timer.Context context = timer.time();
+        context.stop();
+        return context;
+    }
+
+    @Benchmark
+    public long perfStartTick() {
+        final long startTick = timer.startTick();
+        return timer.stop(startTick);
+    }
+
+    @Benchmark
+    public void perfDisabledUpdate() {
+        disabledTimer.update(1, TimeUnit.MILLISECONDS);
+    }
+
+    @Benchmark
+    public void perfEnabledUpdate() {
+        enabledTimer.update(1, TimeUnit.MILLISECONDS);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(".*" + TimerBenchmark.class.getSimpleName() + ".*")
+                .warmupIterations(3)
+                .measurementIterations(5)
+                .addProfiler(GCProfiler.class)
+                .threads(4)
+                .forks(1)
+                .build();
+
+        new Runner(opt).run();
+    }
+
+}
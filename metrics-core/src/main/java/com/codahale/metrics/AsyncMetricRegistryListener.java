@@ -0,0 +1,213 @@
+package com.codahale.metrics;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * A {@link MetricRegistryListener} which hands the events of a registry over to another listener
+ * on a dedicated thread, so that registering or removing a metric never waits for the listener.
+ * <p>
+ * Events are queued and delivered in the order they were received, in batches of everything queued
+ * since the previous batch. A metric which is added and removed again within the same batch is
+ * never reported to the listener at all. The listener is only ever called from the dedicated
+ * thread, so it sees each event after the registry has already moved on.
+ * <p>
+ * {@link #close() Closing} the listener delivers the events queued so far and stops the thread;
+ * events received afterwards are dropped, so remove it from the registry first.
+ */
+public class AsyncMetricRegistryListener implements MetricRegistryListener, AutoCloseable {
+    private static final Logger LOG = LoggerFactory.getLogger(AsyncMetricRegistryListener.class);
+    private static final AtomicInteger THREAD_COUNT = new AtomicInteger();
+    private static final int DEFAULT_BATCH_SIZE = 1024;
+    private static final Event CLOSE = new Event(null, false, listener -> {
+    });
+
+    private final MetricRegistryListener listener;
+    private final int batchSize;
+    private final BlockingQueue<Event> queue;
+    private final Thread thread;
+    private volatile boolean closed;
+
+    /**
+     * Creates a new {@link AsyncMetricRegistryListener} delivering events to the given listener.
+     *
+     * @param listener the listener to deliver the events to
+     */
+    public AsyncMetricRegistryListener(MetricRegistryListener listener) {
+        this(listener, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * Creates a new {@link AsyncMetricRegistryListener} delivering events to the given listener.
+     *
+     * @param listener  the listener to deliver the events to
+     * @param batchSize the maximum number of events delivered in one batch
+     */
+    public AsyncMetricRegistryListener(MetricRegistryListener listener, int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("batchSize must be positive: " + batchSize);
+        }
+        this.listener = listener;
+        this.batchSize = batchSize;
+        this.queue = new LinkedBlockingQueue<>();
+        this.thread = new Thread(this::run, "metrics-listener-" + THREAD_COUNT.incrementAndGet());
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @Override
+    public void onGaugeAdded(String name, Gauge<?> gauge) {
+        enqueue(new Event(name, true, l -> l.onGaugeAdded(name, gauge)));
+    }
+
+    @Override
+    public void onGaugeRemoved(String name) {
+        enqueue(new Event(name, false, l -> l.onGaugeRemoved(name)));
+    }
+
+    @Override
+    public void onCounterAdded(String name, Counter counter) {
+        enqueue(new Event(name, true, l -> l.onCounterAdded(name, counter)));
+    }
+
+    @Override
+    public void onCounterRemoved(String name) {
+        enqueue(new Event(name, false, l -> l.onCounterRemoved(name)));
+    }
+
+    @Override
+    public void onHistogramAdded(String name, Histogram histogram) {
+        enqueue(new Event(name, true, l -> l.onHistogramAdded(name, histogram)));
+    }
+
+    @Override
+    public void onHistogramRemoved(String name) {
+        enqueue(new Event(name, false, l -> l.onHistogramRemoved(name)));
+    }
+
+    @Override
+    public void onMeterAdded(String name, Meter meter) {
+        enqueue(new Event(name, true, l -> l.onMeterAdded(name, meter)));
+    }
+
+    @Override
+    public void onMeterRemoved(String name) {
+        enqueue(new Event(name, false, l -> l.onMeterRemoved(name)));
+    }
+
+    @Override
+    public void onTimerAdded(String name, Timer timer) {
+        enqueue(new Event(name, true, l -> l.onTimerAdded(name, timer)));
+    }
+
+    @Override
+    public void onTimerRemoved(String name) {
+        enqueue(new Event(name, false, l -> l.onTimerRemoved(name)));
+    }
+
+    /**
+     * Delivers the events received so far and stops the delivery thread.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        queue.add(CLOSE);
+        if (Thread.currentThread() != thread) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void enqueue(Event event) {
+        if (closed) {
+            LOG.debug("Dropped an event for {} received after closing", event.name);
+            return;
+        }
+        queue.add(event);
+    }
+
+    private void run() {
+        final List<Event> batch = new ArrayList<>();
+        try {
+            while (true) {
+                batch.add(queue.take());
+                queue.drainTo(batch, batchSize - 1);
+                if (deliver(batch)) {
+                    return;
+                }
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /*
+     * Delivers the batch, and returns whether it ended with the close event.
+     */
+    private boolean deliver(List<Event> batch) {
+        coalesce(batch);
+        for (Event event : batch) {
+            if (event == CLOSE) {
+                return true;
+            }
+            if (event != null) {
+                try {
+                    event.delivery.accept(listener);
+                } catch (RuntimeException e) {
+                    LOG.warn("Exception thrown by listener for {}. Exception was suppressed.", event.name, e);
+                }
+            }
+        }
+        return false;
+    }
+
+    /*
+     * Drops the additions which are removed again later in the batch, along with their removals.
+     */
+    private static void coalesce(List<Event> batch) {
+        final Map<String, Integer> additions = new HashMap<>();
+        for (int i = 0; i < batch.size(); i++) {
+            final Event event = batch.get(i);
+            if (event == CLOSE) {
+                return;
+            }
+            if (event.added) {
+                additions.put(event.name, i);
+            } else {
+                final Integer addition = additions.remove(event.name);
+                if (addition != null) {
+                    batch.set(addition, null);
+                    batch.set(i, null);
+                }
+            }
+        }
+    }
+
+    private static class Event {
+        private final String name;
+        private final boolean added;
+        private final Consumer<MetricRegistryListener> delivery;
+
+        private Event(String name, boolean added, Consumer<MetricRegistryListener> delivery) {
+            this.name = name;
+            this.added = added;
+            this.delivery = delivery;
+        }
+    }
+}
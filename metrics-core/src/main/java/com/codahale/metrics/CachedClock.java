@@ -0,0 +1,92 @@
+package com.codahale.metrics;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A {@link Clock} implementation which returns a tick and a time that are refreshed by a
+ * background thread at a fixed resolution, instead of reading the underlying clock on every call.
+ * <p>
+ * Reading the clock is then a single volatile read, which pays off where {@link System#nanoTime()}
+ * is expensive, such as on some virtualized hosts, and the metric only needs coarse timestamps,
+ * such as a {@link Meter} whose moving averages tick every few seconds. Durations measured with
+ * it are only accurate to the resolution, so it is not a good fit for timing short operations with
+ * a {@link Timer}. The sliding-window reservoirs keep up to 256 measurements per distinct tick at
+ * their exact time, so with a coarse clock their windows may run slightly ahead under a very high
+ * update rate.
+ */
+public class CachedClock extends Clock implements AutoCloseable {
+    private static final Logger LOG = LoggerFactory.getLogger(CachedClock.class);
+    private static final AtomicInteger THREAD_COUNT = new AtomicInteger();
+
+    private final Clock clock;
+    private final ScheduledExecutorService executor;
+    private final ScheduledFuture<?> refreshing;
+    private volatile long tick;
+    private volatile long time;
+
+    /**
+     * Creates a new {@link CachedClock} which caches the default clock.
+     *
+     * @param resolution     how often to refresh the tick and the time
+     * @param resolutionUnit the unit of {@code resolution}
+     */
+    public CachedClock(long resolution, TimeUnit resolutionUnit) {
+        this(Clock.defaultClock(), resolution, resolutionUnit);
+    }
+
+    /**
+     * Creates a new {@link CachedClock} which caches the given clock.
+     *
+     * @param clock          the clock to read in the background
+     * @param resolution     how often to refresh the tick and the time
+     * @param resolutionUnit the unit of {@code resolution}
+     */
+    public CachedClock(Clock clock, long resolution, TimeUnit resolutionUnit) {
+        this.clock = clock;
+        refresh();
+        this.executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            final Thread t = new Thread(r, "metrics-cached-clock-" + THREAD_COUNT.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        this.refreshing = executor.scheduleAtFixedRate(() -> {
+            // an exception would cancel the task and freeze the tick for good
+            try {
+                refresh();
+            } catch (RuntimeException e) {
+                LOG.error("Exception thrown while refreshing a cached clock. Exception was suppressed.", e);
+            }
+        }, resolution, resolution, resolutionUnit);
+    }
+
+    @Override
+    public long getTick() {
+        return tick;
+    }
+
+    @Override
+    public long getTime() {
+        return time;
+    }
+
+    void refresh() {
+        tick = clock.getTick();
+        time = clock.getTime();
+    }
+
+    /**
+     * Stops refreshing the tick and the time.
+     */
+    @Override
+    public void close() {
+        refreshing.cancel(false);
+        executor.shutdown();
+    }
+}
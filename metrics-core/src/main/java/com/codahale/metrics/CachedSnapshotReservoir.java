@@ -0,0 +1,91 @@
+package com.codahale.metrics;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A {@link Reservoir} decorator which caches the snapshot of another reservoir for a period of
+ * time.
+ * <p>
+ * Building a snapshot usually means copying and sorting the samples of the reservoir. When several
+ * reporters read the same {@link Histogram} or {@link Timer} in every reporting cycle, each of them
+ * would pay that cost again. With this decorator, every reader within the timeout gets the same
+ * snapshot, and concurrent readers of an expired snapshot wait for a single one of them to build
+ * the new one. Updates always go straight to the wrapped reservoir.
+ * <p>
+ * To cache the snapshots of every histogram and timer of a registry, create the registry with
+ * {@code new MetricRegistry(() -> new CachedSnapshotReservoir(new ExponentiallyDecayingReservoir(),
+ * 1, TimeUnit.SECONDS))}.
+ */
+public class CachedSnapshotReservoir implements Reservoir {
+    private final Reservoir reservoir;
+    private final Clock clock;
+    private final long timeoutNS;
+    private volatile CachedSnapshot cached;
+
+    /**
+     * Creates a new {@link CachedSnapshotReservoir} with the given timeout period.
+     *
+     * @param reservoir   the reservoir whose snapshots are cached
+     * @param timeout     the timeout
+     * @param timeoutUnit the unit of {@code timeout}
+     */
+    public CachedSnapshotReservoir(Reservoir reservoir, long timeout, TimeUnit timeoutUnit) {
+        this(reservoir, Clock.defaultClock(), timeout, timeoutUnit);
+    }
+
+    /**
+     * Creates a new {@link CachedSnapshotReservoir} with the given clock and timeout period.
+     *
+     * @param reservoir   the reservoir whose snapshots are cached
+     * @param clock       the clock used to calculate the timeout
+     * @param timeout     the timeout
+     * @param timeoutUnit the unit of {@code timeout}
+     */
+    public CachedSnapshotReservoir(Reservoir reservoir, Clock clock, long timeout, TimeUnit timeoutUnit) {
+        this.reservoir = reservoir;
+        this.clock = clock;
+        this.timeoutNS = timeoutUnit.toNanos(timeout);
+    }
+
+    @Override
+    public int size() {
+        return reservoir.size();
+    }
+
+    @Override
+    public void update(long value) {
+        reservoir.update(value);
+    }
+
+    @Override
+    public void update(long[] values, int offset, int length) {
+        reservoir.update(values, offset, length);
+    }
+
+    @Override
+    public Snapshot getSnapshot() {
+        CachedSnapshot current = cached;
+        if (current != null && clock.getTick() < current.reloadAt) {
+            return current.snapshot;
+        }
+        synchronized (this) {
+            current = cached;
+            if (current == null || clock.getTick() >= current.reloadAt) {
+                final Snapshot snapshot = reservoir.getSnapshot();
+                current = new CachedSnapshot(snapshot, clock.getTick() + timeoutNS);
+                cached = current;
+            }
+            return current.snapshot;
+        }
+    }
+
+    private static class CachedSnapshot {
+        private final Snapshot snapshot;
+        private final long reloadAt;
+
+        private CachedSnapshot(Snapshot snapshot, long reloadAt) {
+            this.snapshot = snapshot;
+            this.reloadAt = reloadAt;
+        }
+    }
+}
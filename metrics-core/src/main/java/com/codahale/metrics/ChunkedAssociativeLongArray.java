@@ -56,18 +56,47 @@ class ChunkedAssociativeLongArray {
     }
 
     synchronized boolean put(long key, long value) {
-        Chunk activeChunk = chunks.peekLast();
-        if (activeChunk != null && activeChunk.cursor != 0 && activeChunk.keys[activeChunk.cursor - 1] > key) {
-            // key should be the same as last inserted or bigger
+        if (!canAppend(key)) {
+            return false;
+        }
+        append(key, value);
+        return true;
+    }
+
+    /**
+     * Puts a batch of values with consecutive keys.
+     *
+     * @param firstKey the key of the first value; the other values get the following keys
+     * @param values   an array holding the values
+     * @param offset   the index of the first value to put
+     * @param length   the number of values to put
+     * @return false if {@code firstKey} is less than the last inserted key, in which case no value
+     * was put
+     */
+    synchronized boolean putAll(long firstKey, long[] values, int offset, int length) {
+        if (!canAppend(firstKey)) {
             return false;
         }
+        for (int i = 0; i < length; i++) {
+            append(firstKey + i, values[offset + i]);
+        }
+        return true;
+    }
+
+    private boolean canAppend(long key) {
+        final Chunk activeChunk = chunks.peekLast();
+        // key should be the same as last inserted or bigger
+        return activeChunk == null || activeChunk.cursor == 0 || activeChunk.keys[activeChunk.cursor - 1] <= key;
+    }
+
+    private void append(long key, long value) {
+        Chunk activeChunk = chunks.peekLast();
         if (activeChunk == null || activeChunk.cursor - activeChunk.startIndex == activeChunk.chunkSize) {
             // The last chunk doesn't exist or full
             activeChunk = allocateChunk();
             chunks.add(activeChunk);
         }
         activeChunk.append(key, value);
-        return true;
     }
 
     synchronized long[] values() {
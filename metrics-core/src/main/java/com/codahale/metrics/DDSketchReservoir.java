@@ -0,0 +1,83 @@
+package com.codahale.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A {@link Reservoir} implementation which keeps a relative-error quantile sketch instead of
+ * samples. Values are counted in buckets whose bounds grow geometrically, so every quantile is
+ * reported within the configured relative accuracy of the true value.
+ * <p>
+ * The buckets cover every positive {@code long}, so the memory used by the reservoir is fixed up
+ * front (about 17KB for the default 1% accuracy), and an update is a single atomic increment.
+ * The reservoir is never reset. Its {@link DDSketchSnapshot snapshots} are serializable and can
+ * be merged with the snapshots of other reservoirs of the same accuracy, for example to combine
+ * the latency distributions of several processes without losing the accuracy guarantee.
+ *
+ * @see DDSketchSnapshot
+ * @see <a href="http://www.vldb.org/pvldb/vol12/p2195-masson.pdf">Masson et al. DDSketch: A Fast
+ * and Fully-Mergeable Quantile Sketch with Relative-Error Guarantees. PVLDB 12(12) (2019)</a>
+ */
+public class DDSketchReservoir implements Reservoir {
+    private static final double DEFAULT_RELATIVE_ACCURACY = 0.01;
+
+    private final double relativeAccuracy;
+    private final double multiplier;
+    // slot 0 counts values <= 0, slot i + 1 counts the values of sketch index i
+    private final AtomicLongArray counts;
+
+    /**
+     * Creates a new {@link DDSketchReservoir} with a relative accuracy of 1%.
+     */
+    public DDSketchReservoir() {
+        this(DEFAULT_RELATIVE_ACCURACY);
+    }
+
+    /**
+     * Creates a new {@link DDSketchReservoir}.
+     *
+     * @param relativeAccuracy the relative accuracy of the quantiles, in {@code (0..1)}; values
+     *                         {@code <= 0} are counted as zero
+     */
+    public DDSketchReservoir(double relativeAccuracy) {
+        this.relativeAccuracy = relativeAccuracy;
+        this.multiplier = DDSketchSnapshot.multiplier(relativeAccuracy);
+        this.counts = new AtomicLongArray(DDSketchSnapshot.index(multiplier, Long.MAX_VALUE) + 2);
+    }
+
+    @Override
+    public int size() {
+        long count = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            count += counts.get(i);
+        }
+        return (int) Math.min(count, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public void update(long value) {
+        counts.incrementAndGet(value <= 0 ? 0 : DDSketchSnapshot.index(multiplier, value) + 1);
+    }
+
+    @Override
+    public DDSketchSnapshot getSnapshot() {
+        final long zeroCount = counts.get(0);
+        int first = -1;
+        int last = -1;
+        final long[] copy = new long[counts.length() - 1];
+        for (int i = 0; i < copy.length; i++) {
+            copy[i] = counts.get(i + 1);
+            if (copy[i] != 0) {
+                if (first < 0) {
+                    first = i;
+                }
+                last = i;
+            }
+        }
+        if (first < 0) {
+            return new DDSketchSnapshot(relativeAccuracy, zeroCount, 0, new long[0]);
+        }
+        final long[] bins = new long[last - first + 1];
+        System.arraycopy(copy, first, bins, 0, bins.length);
+        return new DDSketchSnapshot(relativeAccuracy, zeroCount, first, bins);
+    }
+}
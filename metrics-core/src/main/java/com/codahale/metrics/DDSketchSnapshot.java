@@ -0,0 +1,268 @@
+package com.codahale.metrics;
+
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.Serializable;
+import java.util.Arrays;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * A statistical snapshot of a {@link DDSketchReservoir}.
+ * <p>
+ * The snapshot keeps the bucket counts of the sketch rather than sampled values. Quantiles, the
+ * minimum and the maximum are within the relative accuracy of the sketch, and the mean and
+ * standard deviation are computed from the bucket estimates. {@link #getValues()} returns one
+ * value per non-empty bucket rather than one per recorded value, while {@link #size()} is the
+ * number of recorded values.
+ * <p>
+ * Snapshots are {@link Serializable} and snapshots of the same relative accuracy can be
+ * {@link #merge(DDSketchSnapshot) merged}; the merged snapshot has exactly the bucket counts of a
+ * single sketch which recorded all of the values.
+ */
+public class DDSketchSnapshot extends Snapshot implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final double relativeAccuracy;
+    private final long zeroCount;
+    private final int firstIndex;
+    private final long[] counts;
+    private final long count;
+
+    /**
+     * Creates a new empty {@link DDSketchSnapshot}, which can be used as the starting point when
+     * merging snapshots.
+     *
+     * @param relativeAccuracy the relative accuracy of the sketch, in {@code (0..1)}
+     */
+    public DDSketchSnapshot(double relativeAccuracy) {
+        this(relativeAccuracy, 0, 0, new long[0]);
+    }
+
+    DDSketchSnapshot(double relativeAccuracy, long zeroCount, int firstIndex, long[] counts) {
+        // validates the accuracy
+        multiplier(relativeAccuracy);
+        this.relativeAccuracy = relativeAccuracy;
+        this.zeroCount = zeroCount;
+        this.firstIndex = firstIndex;
+        this.counts = counts;
+        long total = zeroCount;
+        for (long c : counts) {
+            total += c;
+        }
+        this.count = total;
+    }
+
+    static double multiplier(double relativeAccuracy) {
+        if (!(relativeAccuracy > 0 && relativeAccuracy < 1)) {
+            throw new IllegalArgumentException("relativeAccuracy must be in (0..1): " + relativeAccuracy);
+        }
+        final double gamma = (1 + relativeAccuracy) / (1 - relativeAccuracy);
+        return 1 / Math.log(gamma);
+    }
+
+    static int index(double multiplier, long value) {
+        return (int) Math.ceil(Math.log(value) * multiplier);
+    }
+
+    /**
+     * Returns the relative accuracy of the sketch this snapshot was taken from.
+     *
+     * @return the relative accuracy
+     */
+    public double getRelativeAccuracy() {
+        return relativeAccuracy;
+    }
+
+    /**
+     * Returns the number of values recorded in the snapshot.
+     *
+     * @return the number of values
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Merges this snapshot with another one of the same relative accuracy.
+     *
+     * @param other the snapshot to merge with
+     * @return a new snapshot holding the values of both snapshots
+     * @throws IllegalArgumentException if the relative accuracies differ
+     */
+    public DDSketchSnapshot merge(DDSketchSnapshot other) {
+        if (Double.compare(relativeAccuracy, other.relativeAccuracy) != 0) {
+            throw new IllegalArgumentException("Can't merge a sketch with relative accuracy " +
+                    other.relativeAccuracy + " into one with " + relativeAccuracy);
+        }
+        if (other.counts.length == 0) {
+            return new DDSketchSnapshot(relativeAccuracy, zeroCount + other.zeroCount, firstIndex, counts);
+        }
+        if (counts.length == 0) {
+            return new DDSketchSnapshot(relativeAccuracy, zeroCount + other.zeroCount, other.firstIndex, other.counts);
+        }
+
+        final int first = Math.min(firstIndex, other.firstIndex);
+        final int last = Math.max(firstIndex + counts.length, other.firstIndex + other.counts.length);
+        final long[] merged = new long[last - first];
+        for (int i = 0; i < counts.length; i++) {
+            merged[firstIndex - first + i] += counts[i];
+        }
+        for (int i = 0; i < other.counts.length; i++) {
+            merged[other.firstIndex - first + i] += other.counts[i];
+        }
+        return new DDSketchSnapshot(relativeAccuracy, zeroCount + other.zeroCount, first, merged);
+    }
+
+    /**
+     * Returns the value at the given quantile.
+     *
+     * @param quantile a given quantile, in {@code [0..1]}
+     * @return the value in the distribution at {@code quantile}
+     */
+    @Override
+    public double getValue(double quantile) {
+        if (quantile < 0.0 || quantile > 1.0 || Double.isNaN(quantile)) {
+            throw new IllegalArgumentException(quantile + " is not in [0..1]");
+        }
+
+        if (count == 0) {
+            return 0.0;
+        }
+
+        final double rank = quantile * (count - 1);
+        long cumulative = zeroCount;
+        if (cumulative > rank) {
+            return 0.0;
+        }
+        for (int i = 0; i < counts.length; i++) {
+            cumulative += counts[i];
+            if (cumulative > rank) {
+                return valueAt(i);
+            }
+        }
+        return valueAt(counts.length - 1);
+    }
+
+    /**
+     * Returns the number of values recorded in the snapshot.
+     *
+     * @return the number of values
+     */
+    @Override
+    public int size() {
+        return (int) Math.min(count, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Returns the estimated value of every non-empty bucket.
+     *
+     * @return the estimated value of every non-empty bucket, in ascending order
+     */
+    @Override
+    public long[] getValues() {
+        final long[] values = new long[counts.length + 1];
+        int j = 0;
+        if (zeroCount > 0) {
+            values[j++] = 0;
+        }
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > 0) {
+                values[j++] = Math.round(valueAt(i));
+            }
+        }
+        return Arrays.copyOf(values, j);
+    }
+
+    /**
+     * Returns the highest value in the snapshot.
+     *
+     * @return the highest value
+     */
+    @Override
+    public long getMax() {
+        if (counts.length == 0) {
+            return 0;
+        }
+        return Math.round(valueAt(counts.length - 1));
+    }
+
+    /**
+     * Returns the lowest value in the snapshot.
+     *
+     * @return the lowest value
+     */
+    @Override
+    public long getMin() {
+        if (zeroCount > 0 || counts.length == 0) {
+            return 0;
+        }
+        return Math.round(valueAt(0));
+    }
+
+    /**
+     * Returns the arithmetic mean of the values in the snapshot.
+     *
+     * @return the arithmetic mean
+     */
+    @Override
+    public double getMean() {
+        if (count == 0) {
+            return 0;
+        }
+
+        double sum = 0;
+        for (int i = 0; i < counts.length; i++) {
+            sum += valueAt(i) * counts[i];
+        }
+        return sum / count;
+    }
+
+    /**
+     * Returns the standard deviation of the values in the snapshot.
+     *
+     * @return the standard deviation value
+     */
+    @Override
+    public double getStdDev() {
+        // two-pass algorithm for variance, avoids numeric overflow
+
+        if (count <= 1) {
+            return 0;
+        }
+
+        final double mean = getMean();
+        double sum = zeroCount * mean * mean;
+        for (int i = 0; i < counts.length; i++) {
+            final double diff = valueAt(i) - mean;
+            sum += diff * diff * counts[i];
+        }
+
+        final double variance = sum / (count - 1);
+        return Math.sqrt(variance);
+    }
+
+    /**
+     * Writes the estimated value of every non-empty bucket to the given stream.
+     *
+     * @param output an output stream
+     */
+    @Override
+    public void dump(OutputStream output) {
+        try (PrintWriter out = new PrintWriter(new OutputStreamWriter(output, UTF_8))) {
+            for (long value : getValues()) {
+                out.printf("%d%n", value);
+            }
+        }
+    }
+
+    /**
+     * The bucket of index {@code i} holds the values in {@code (gamma^(i-1)..gamma^i]}; the estimate
+     * is chosen so that the relative error to both bounds is the relative accuracy.
+     */
+    private double valueAt(int i) {
+        final double gamma = (1 + relativeAccuracy) / (1 - relativeAccuracy);
+        return 2 * Math.pow(gamma, firstIndex + i) / (gamma + 1);
+    }
+}
@@ -1,21 +1,42 @@
 package com.codahale.metrics;
 
+import java.time.Duration;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import static java.lang.Double.doubleToRawLongBits;
+import static java.lang.Double.longBitsToDouble;
+import static java.lang.Math.exp;
 
 /**
  * A triple (one, five and fifteen minutes) of exponentially-weighted moving average rates as needed by {@link Meter}.
  * <p>
  * The rates have the same exponential decay factor as the fifteen-minute load average in the
  * {@code top} Unix command.
+ * <p>
+ * All rates share a single counter of the events of the current tick interval, which every tick
+ * folds into each of them, so an update costs the same no matter how many rates are kept. Extra
+ * windows, such as a ten-second rate, can be configured and read with {@link #getRate(Duration)}.
+ *
+ * @see EWMA
  */
 public class ExponentialMovingAverages implements MovingAverages {
 
     private static final long TICK_INTERVAL = TimeUnit.SECONDS.toNanos(5);
+    private static final double TICK_INTERVAL_SECONDS = 5.0;
+    private static final Duration[] DEFAULT_WINDOWS = {
+            Duration.ofMinutes(1), Duration.ofMinutes(5), Duration.ofMinutes(15)
+    };
+    private static final double[] DEFAULT_ALPHAS = alphas(DEFAULT_WINDOWS);
 
-    private final EWMA m1Rate = EWMA.oneMinuteEWMA();
-    private final EWMA m5Rate = EWMA.fiveMinuteEWMA();
-    private final EWMA m15Rate = EWMA.fifteenMinuteEWMA();
+    private final LongAdder uncounted = new LongAdder();
+    private final Duration[] windows;
+    private final double[] alphas;
+    // the per-second rate of every window, as raw double bits
+    private final AtomicLongArray rates;
+    private volatile boolean initialized = false;
 
     private final AtomicLong lastTick;
     private final Clock clock;
@@ -31,15 +52,47 @@ public class ExponentialMovingAverages implements MovingAverages {
      * Creates a new {@link ExponentialMovingAverages}.
      */
     public ExponentialMovingAverages(Clock clock) {
+        this(clock, new Duration[0]);
+    }
+
+    /**
+     * Creates a new {@link ExponentialMovingAverages} which also keeps the rates of the given
+     * windows. Windows shorter than the five-second tick interval are not meaningful.
+     *
+     * @param clock        the clock to use for the ticks
+     * @param extraWindows the windows to keep rates for in addition to the one-, five- and
+     *                     fifteen-minute ones
+     */
+    public ExponentialMovingAverages(Clock clock, Duration... extraWindows) {
         this.clock = clock;
         this.lastTick = new AtomicLong(this.clock.getTick());
+        if (extraWindows.length == 0) {
+            // shared by all instances which only keep the default rates
+            this.windows = DEFAULT_WINDOWS;
+            this.alphas = DEFAULT_ALPHAS;
+        } else {
+            this.windows = new Duration[DEFAULT_WINDOWS.length + extraWindows.length];
+            System.arraycopy(DEFAULT_WINDOWS, 0, windows, 0, DEFAULT_WINDOWS.length);
+            System.arraycopy(extraWindows, 0, windows, DEFAULT_WINDOWS.length, extraWindows.length);
+            this.alphas = alphas(windows);
+        }
+        this.rates = new AtomicLongArray(windows.length);
+    }
+
+    private static double[] alphas(Duration[] windows) {
+        final double[] alphas = new double[windows.length];
+        for (int i = 0; i < windows.length; i++) {
+            if (windows[i].isNegative() || windows[i].isZero()) {
+                throw new IllegalArgumentException("window must be positive: " + windows[i]);
+            }
+            alphas[i] = 1 - exp(-TICK_INTERVAL / (double) windows[i].toNanos());
+        }
+        return alphas;
     }
 
     @Override
     public void update(long n) {
-        m1Rate.update(n);
-        m5Rate.update(n);
-        m15Rate.update(n);
+        uncounted.add(n);
     }
 
     @Override
@@ -52,26 +105,58 @@ public class ExponentialMovingAverages implements MovingAverages {
             if (lastTick.compareAndSet(oldTick, newIntervalStartTick)) {
                 final long requiredTicks = age / TICK_INTERVAL;
                 for (long i = 0; i < requiredTicks; i++) {
-                    m1Rate.tick();
-                    m5Rate.tick();
-                    m15Rate.tick();
+                    tick();
                 }
             }
         }
     }
 
+    private void tick() {
+        final double instantRate = uncounted.sumThenReset() / TICK_INTERVAL_SECONDS;
+        for (int i = 0; i < alphas.length; i++) {
+            if (initialized) {
+                final double oldRate = longBitsToDouble(rates.get(i));
+                rates.set(i, doubleToRawLongBits(oldRate + (alphas[i] * (instantRate - oldRate))));
+            } else {
+                rates.set(i, doubleToRawLongBits(instantRate));
+            }
+        }
+        initialized = true;
+    }
+
     @Override
     public double getM1Rate() {
-        return m1Rate.getRate(TimeUnit.SECONDS);
+        return rate(0);
     }
 
     @Override
     public double getM5Rate() {
-        return m5Rate.getRate(TimeUnit.SECONDS);
+        return rate(1);
     }
 
     @Override
     public double getM15Rate() {
-        return m15Rate.getRate(TimeUnit.SECONDS);
+        return rate(2);
+    }
+
+    /**
+     * Returns the per-second moving average rate of the given window.
+     *
+     * @param window one of the one-, five- and fifteen-minute windows, or one of the extra windows
+     *               this instance was created with
+     * @return the moving average rate of {@code window}
+     * @throws IllegalArgumentException if no rate is kept for {@code window}
+     */
+    public double getRate(Duration window) {
+        for (int i = 0; i < windows.length; i++) {
+            if (windows[i].equals(window)) {
+                return rate(i);
+            }
+        }
+        throw new IllegalArgumentException("No rate is kept for a window of " + window);
+    }
+
+    private double rate(int index) {
+        return longBitsToDouble(rates.get(index));
     }
 }
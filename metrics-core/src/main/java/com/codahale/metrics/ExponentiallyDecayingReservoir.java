@@ -1,6 +1,7 @@
 package com.codahale.metrics;
 
-import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Map;
 import java.util.concurrent.ConcurrentSkipListMap;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
@@ -25,8 +26,11 @@ public class ExponentiallyDecayingReservoir implements Reservoir {
     private static final int DEFAULT_SIZE = 1028;
     private static final double DEFAULT_ALPHA = 0.015;
     private static final long RESCALE_THRESHOLD = TimeUnit.HOURS.toNanos(1);
+    // number of samples carried over from before a rescale by each update
+    private static final int RESCALE_BATCH_SIZE = 4;
 
-    private final ConcurrentSkipListMap<Double, WeightedSample> values;
+    private volatile ConcurrentSkipListMap<Double, WeightedSample> values;
+    private volatile PendingRescale pendingRescale;
     private final ReentrantReadWriteLock lock;
     private final double alpha;
     private final int size;
@@ -76,6 +80,14 @@ public class ExponentiallyDecayingReservoir implements Reservoir {
 
     @Override
     public int size() {
+        if (pendingRescale != null) {
+            lockForRegularUsage();
+            try {
+                migrateSamples(Integer.MAX_VALUE);
+            } finally {
+                unlockForRegularUsage();
+            }
+        }
         return (int) min(size, count.get());
     }
 
@@ -98,23 +110,46 @@ public class ExponentiallyDecayingReservoir implements Reservoir {
             final WeightedSample sample = new WeightedSample(value, itemWeight);
             final double priority = itemWeight / ThreadLocalRandom.current().nextDouble();
 
-            final long newCount = count.incrementAndGet();
-            if (newCount <= size || values.isEmpty()) {
-                values.put(priority, sample);
-            } else {
-                Double first = values.firstKey();
-                if (first < priority && values.putIfAbsent(priority, sample) == null) {
-                    // ensure we always remove an item
-                    while (values.remove(first) == null) {
-                        first = values.firstKey();
-                    }
-                }
+            offer(priority, sample);
+            migrateSamples(RESCALE_BATCH_SIZE);
+        } finally {
+            unlockForRegularUsage();
+        }
+    }
+
+    @Override
+    public void update(long[] values, int offset, int length) {
+        final long timestamp = currentTimeInSeconds();
+        rescaleIfNeeded();
+        lockForRegularUsage();
+        try {
+            final double itemWeight = weight(timestamp - startTime);
+            final ThreadLocalRandom random = ThreadLocalRandom.current();
+            for (int i = offset; i < offset + length; i++) {
+                offer(itemWeight / random.nextDouble(), new WeightedSample(values[i], itemWeight));
             }
+            migrateSamples(RESCALE_BATCH_SIZE);
         } finally {
             unlockForRegularUsage();
         }
     }
 
+    private void offer(double priority, WeightedSample sample) {
+        final ConcurrentSkipListMap<Double, WeightedSample> values = this.values;
+        final long newCount = count.incrementAndGet();
+        if (newCount <= size || values.isEmpty()) {
+            values.put(priority, sample);
+        } else {
+            Double first = values.firstKey();
+            if (first < priority && values.putIfAbsent(priority, sample) == null) {
+                // ensure we always remove an item
+                while (values.remove(first) == null) {
+                    first = values.firstKey();
+                }
+            }
+        }
+    }
+
     private void rescaleIfNeeded() {
         final long now = clock.getTick();
         final long lastScaleTickSnapshot = lastScaleTick.get();
@@ -128,7 +163,25 @@ public class ExponentiallyDecayingReservoir implements Reservoir {
         rescaleIfNeeded();
         lockForRegularUsage();
         try {
-            return new WeightedSnapshot(values.values());
+            migrateSamples(Integer.MAX_VALUE);
+            // updates may still add and remove samples while the values are copied
+            long[] sampleValues = new long[values.size()];
+            double[] sampleWeights = new double[sampleValues.length];
+            int count = 0;
+            for (WeightedSample sample : values.values()) {
+                if (count == sampleValues.length) {
+                    sampleValues = Arrays.copyOf(sampleValues, count + (count >> 1) + 1);
+                    sampleWeights = Arrays.copyOf(sampleWeights, sampleValues.length);
+                }
+                sampleValues[count] = sample.value;
+                sampleWeights[count] = sample.weight;
+                count++;
+            }
+            if (count < sampleValues.length) {
+                sampleValues = Arrays.copyOf(sampleValues, count);
+                sampleWeights = Arrays.copyOf(sampleWeights, count);
+            }
+            return new WeightedSnapshot(sampleValues, sampleWeights);
         } finally {
             unlockForRegularUsage();
         }
@@ -159,36 +212,61 @@ public class ExponentiallyDecayingReservoir implements Reservoir {
      * and obtain the correct value as if we had instead computed relative to a new
      * landmark L′ (and then use this new L′ at query time). This can be done with
      * a linear pass over whatever data structure is being used."
+     *
+     * Rather than doing that linear pass while holding the write lock, the samples are swapped
+     * out for an empty map and carried over lazily: every update moves a few of them into the new
+     * map, and reads move whatever is left. Carrying a sample over is just another offer of it
+     * with its rescaled priority, so the reservoir ends up with the same highest priority samples
+     * no matter how the old and the new samples are interleaved.
      */
     private void rescale(long now, long lastTick) {
         lockForRescale();
         try {
             if (lastScaleTick.compareAndSet(lastTick, now)) {
+                // only left over if nothing touched the reservoir since the previous rescale
+                migrateSamples(Integer.MAX_VALUE);
+
                 final long oldStartTime = startTime;
                 this.startTime = currentTimeInSeconds();
                 final double scalingFactor = exp(-alpha * (startTime - oldStartTime));
-                if (Double.compare(scalingFactor, 0) == 0) {
-                    values.clear();
-                } else {
-                    final ArrayList<Double> keys = new ArrayList<>(values.keySet());
-                    for (Double key : keys) {
-                        final WeightedSample sample = values.remove(key);
-                        final WeightedSample newSample = new WeightedSample(sample.value, sample.weight * scalingFactor);
-                        if (Double.compare(newSample.weight, 0) == 0) {
-                            continue;
-                        }
-                        values.put(key * scalingFactor, newSample);
-                    }
+                final ConcurrentSkipListMap<Double, WeightedSample> oldValues = values;
+                this.values = new ConcurrentSkipListMap<>();
+                // the counter is rebuilt as the old samples are offered to the new map
+                count.set(0);
+                if (Double.compare(scalingFactor, 0) != 0 && !oldValues.isEmpty()) {
+                    this.pendingRescale = new PendingRescale(oldValues, scalingFactor);
                 }
-
-                // make sure the counter is in sync with the number of stored samples.
-                count.set(values.size());
             }
         } finally {
             unlockForRescale();
         }
     }
 
+    /**
+     * Moves up to {@code limit} samples left over from the last rescale into the current map.
+     * Must be called while holding the lock for regular usage.
+     */
+    private void migrateSamples(int limit) {
+        final PendingRescale pending = this.pendingRescale;
+        if (pending == null) {
+            return;
+        }
+        for (int i = 0; i < limit; i++) {
+            // highest priorities first, so most of the remaining ones are rejected cheaply
+            final Map.Entry<Double, WeightedSample> entry = pending.values.pollLastEntry();
+            if (entry == null) {
+                // a new rescale can't be pending, that requires the write lock
+                this.pendingRescale = null;
+                return;
+            }
+            final WeightedSample sample = entry.getValue();
+            final double weight = sample.weight * pending.scalingFactor;
+            if (Double.compare(weight, 0) != 0) {
+                offer(entry.getKey() * pending.scalingFactor, new WeightedSample(sample.value, weight));
+            }
+        }
+    }
+
     private void unlockForRescale() {
         lock.writeLock().unlock();
     }
@@ -204,4 +282,14 @@ public class ExponentiallyDecayingReservoir implements Reservoir {
     private void unlockForRegularUsage() {
         lock.readLock().unlock();
     }
+
+    private static class PendingRescale {
+        private final ConcurrentSkipListMap<Double, WeightedSample> values;
+        private final double scalingFactor;
+
+        private PendingRescale(ConcurrentSkipListMap<Double, WeightedSample> values, double scalingFactor) {
+            this.values = values;
+            this.scalingFactor = scalingFactor;
+        }
+    }
 }
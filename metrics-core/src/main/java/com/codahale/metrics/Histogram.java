@@ -41,6 +41,27 @@ public class Histogram implements Metric, Sampling, Counting {
         reservoir.update(value);
     }
 
+    /**
+     * Adds a batch of recorded values.
+     *
+     * @param values an array holding the recorded values
+     * @param offset the index of the first value to add
+     * @param length the number of values to add
+     * @throws IndexOutOfBoundsException if the batch is not within {@code values}
+     */
+    public void update(long[] values, int offset, int length) {
+        checkBounds(values, offset, length);
+        count.add(length);
+        reservoir.update(values, offset, length);
+    }
+
+    static void checkBounds(long[] values, int offset, int length) {
+        if (offset < 0 || length < 0 || offset > values.length - length) {
+            throw new IndexOutOfBoundsException("offset " + offset + ", length " + length
+                    + " out of bounds for length " + values.length);
+        }
+    }
+
     /**
      * Returns the number of values recorded.
      *
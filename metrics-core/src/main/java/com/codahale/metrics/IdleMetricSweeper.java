@@ -0,0 +1,174 @@
+package com.codahale.metrics;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Removes the metrics of a registry which have not been updated for a period of time, so that
+ * registries with dynamically named metrics, such as one timer per endpoint or per host, do not
+ * keep every name they have ever seen.
+ * <p>
+ * The sweeper tells whether a metric was updated by comparing its {@link Counting#getCount() count}
+ * between sweeps, so updating a metric costs nothing more than it did before. As a consequence,
+ * a metric counts as updated within the period between two sweeps, and {@link Gauge gauges} are
+ * never removed. A {@link Counter} which was incremented and decremented back to the same count,
+ * such as one counting the requests in progress, would count as idle while in use, so counters are
+ * only removed if the sweeper is asked to.
+ * <p>
+ * The sweeper only removes the metrics matching a filter, which should select the dynamically
+ * named ones: integrations such as the servlet filters and the instrumented executors keep their
+ * metrics in fields, and would keep updating removed metrics which are never reported again.
+ * <p>
+ * Idle metrics are {@link MetricRegistry#remove(String) removed} from the registry, which notifies
+ * its listeners as usual. Since an update racing with the removal of its metric is lost, and
+ * references to removed metrics keep being updated without being reported, idle metrics should be
+ * looked up from the registry whenever they are updated rather than kept in fields.
+ * <p>
+ * Like any removal, each sweep which removes a metric increments the removal count of the registry,
+ * which makes every {@link MetricName} resolved in it forget its metric, so the next lookup through
+ * each of them goes through the registry's map again. Sweeping much more often than metrics become idle therefore
+ * does not cost the hot paths anything, but a time to idle short enough to remove metrics at every
+ * sweep does.
+ */
+public class IdleMetricSweeper implements AutoCloseable {
+    private static final Logger LOG = LoggerFactory.getLogger(IdleMetricSweeper.class);
+    private static final AtomicInteger THREAD_COUNT = new AtomicInteger();
+
+    private final MetricRegistry registry;
+    private final MetricFilter filter;
+    private final boolean sweepCounters;
+    private final Clock clock;
+    private final long timeToIdleNS;
+    private final Map<String, Activity> activities;
+    private ScheduledExecutorService executor;
+    private ScheduledFuture<?> sweeping;
+
+    /**
+     * Creates a new {@link IdleMetricSweeper} for the metrics of the given registry matching a filter,
+     * except for counters.
+     *
+     * @param registry   the registry whose idle metrics are removed
+     * @param filter     the filter of the metrics which may be removed
+     * @param timeToIdle the time after which a metric which was not updated is removed
+     * @param unit       the unit of {@code timeToIdle}
+     */
+    public IdleMetricSweeper(MetricRegistry registry, MetricFilter filter, long timeToIdle, TimeUnit unit) {
+        this(registry, filter, false, Clock.defaultClock(), timeToIdle, unit);
+    }
+
+    /**
+     * Creates a new {@link IdleMetricSweeper} for the metrics of the given registry matching a filter.
+     *
+     * @param registry      the registry whose idle metrics are removed
+     * @param filter        the filter of the metrics which may be removed
+     * @param sweepCounters whether counters may be removed, which is only safe if they are never
+     *                      decremented
+     * @param clock         the clock used to measure idleness
+     * @param timeToIdle    the time after which a metric which was not updated is removed
+     * @param unit          the unit of {@code timeToIdle}
+     */
+    public IdleMetricSweeper(MetricRegistry registry, MetricFilter filter, boolean sweepCounters, Clock clock,
+                             long timeToIdle, TimeUnit unit) {
+        if (timeToIdle <= 0) {
+            throw new IllegalArgumentException("timeToIdle must be positive: " + timeToIdle);
+        }
+        this.registry = registry;
+        this.filter = filter;
+        this.sweepCounters = sweepCounters;
+        this.clock = clock;
+        this.timeToIdleNS = unit.toNanos(timeToIdle);
+        this.activities = new HashMap<>();
+    }
+
+    /**
+     * Starts sweeping the registry at the given period, on a dedicated daemon thread.
+     *
+     * @param period the time between sweeps, which should be well below the time to idle
+     * @param unit   the unit of {@code period}
+     * @throws IllegalStateException if the sweeper is already started
+     */
+    public synchronized void start(long period, TimeUnit unit) {
+        if (executor != null) {
+            throw new IllegalStateException("Sweeper already started");
+        }
+        executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            final Thread thread = new Thread(r, "metrics-sweeper-" + THREAD_COUNT.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        sweeping = executor.scheduleWithFixedDelay(() -> {
+            try {
+                sweep();
+            } catch (RuntimeException e) {
+                LOG.error("Exception thrown while sweeping idle metrics. Exception was suppressed.", e);
+            }
+        }, period, period, unit);
+    }
+
+    /**
+     * Removes the metrics which have not been updated since the time to idle, and starts tracking
+     * the metrics registered since the previous sweep.
+     *
+     * @return the number of metrics removed
+     */
+    public int sweep() {
+        final long now = clock.getTick();
+        int removed = 0;
+        synchronized (activities) {
+            final Map<String, Activity> seen = new HashMap<>();
+            for (Map.Entry<String, Metric> entry : registry.getMetrics().entrySet()) {
+                final String name = entry.getKey();
+                final Metric metric = entry.getValue();
+                if (!(metric instanceof Counting) || (!sweepCounters && metric instanceof Counter)
+                        || !filter.matches(name, metric)) {
+                    continue;
+                }
+                final long count = ((Counting) metric).getCount();
+                final Activity activity = activities.get(name);
+                if (activity == null || activity.metric != metric || activity.count != count) {
+                    seen.put(name, new Activity(metric, count, now));
+                } else if (now - activity.updatedAt >= timeToIdleNS && registry.remove(name, metric)) {
+                    removed++;
+                } else {
+                    seen.put(name, activity);
+                }
+            }
+            activities.clear();
+            activities.putAll(seen);
+        }
+        return removed;
+    }
+
+    /**
+     * Stops sweeping the registry.
+     */
+    @Override
+    public synchronized void close() {
+        if (executor != null) {
+            sweeping.cancel(false);
+            executor.shutdownNow();
+            executor = null;
+            sweeping = null;
+        }
+    }
+
+    private static class Activity {
+        private final Metric metric;
+        private final long count;
+        private final long updatedAt;
+
+        private Activity(Metric metric, long count, long updatedAt) {
+            this.metric = metric;
+            this.count = count;
+            this.updatedAt = updatedAt;
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.codahale.metrics;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A {@link Reservoir} implementation which only keeps the values recorded since the last
+ * {@link #getSnapshot() snapshot}, so that a {@link ScheduledReporter} sees the distribution of
+ * each reporting interval on its own.
+ * <p>
+ * Values are recorded into one of two fixed-size buffers. Taking a snapshot swaps the buffers,
+ * waits for updates still writing to the retired buffer, and builds the snapshot from it; the
+ * retired buffer is then cleared and becomes the next spare, so no buffers are allocated after
+ * construction. When more values are recorded in an interval than a buffer holds, Vitter's
+ * Algorithm R keeps a uniform sample of them, like {@link UniformReservoir} does.
+ * <p>
+ * Since every snapshot resets the reservoir, several reporters reading the same metric would each
+ * see only a part of the interval. In that case wrap the reservoir in a
+ * {@link CachedSnapshotReservoir} with a timeout shorter than the reporting interval.
+ *
+ * @see <a href="http://www.cs.umd.edu/~samir/498/vitter.pdf">Random Sampling with a Reservoir</a>
+ */
+public class IntervalReservoir implements Reservoir {
+    private static final int DEFAULT_SIZE = 1028;
+
+    private volatile Buffer active;
+    private Buffer spare;
+
+    /**
+     * Creates a new {@link IntervalReservoir} which keeps up to 1028 values per interval.
+     */
+    public IntervalReservoir() {
+        this(DEFAULT_SIZE);
+    }
+
+    /**
+     * Creates a new {@link IntervalReservoir}.
+     *
+     * @param size the number of values to keep per interval
+     */
+    public IntervalReservoir(int size) {
+        this.active = new Buffer(size);
+        this.spare = new Buffer(size);
+    }
+
+    @Override
+    public int size() {
+        return active.size();
+    }
+
+    @Override
+    public void update(long value) {
+        while (true) {
+            final Buffer buffer = active;
+            buffer.writers.incrementAndGet();
+            try {
+                // a snapshot may have retired the buffer before this update registered itself
+                if (buffer == active) {
+                    buffer.update(value);
+                    return;
+                }
+            } finally {
+                buffer.writers.decrementAndGet();
+            }
+        }
+    }
+
+    @Override
+    public void update(long[] values, int offset, int length) {
+        while (true) {
+            final Buffer buffer = active;
+            buffer.writers.incrementAndGet();
+            try {
+                if (buffer == active) {
+                    for (int i = offset; i < offset + length; i++) {
+                        buffer.update(values[i]);
+                    }
+                    return;
+                }
+            } finally {
+                buffer.writers.decrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Returns a snapshot of the values recorded since the previous snapshot, and starts a new
+     * interval.
+     *
+     * @return a snapshot of the values of the interval that just ended
+     */
+    @Override
+    public synchronized Snapshot getSnapshot() {
+        final Buffer retired = active;
+        active = spare;
+        while (retired.writers.get() != 0) {
+            // writers only hold the buffer for a single update, so a short park is enough
+            LockSupport.parkNanos(1000L);
+        }
+
+        final Snapshot snapshot = retired.getSnapshot();
+        retired.clear();
+        spare = retired;
+        return snapshot;
+    }
+
+    private static class Buffer {
+        private final AtomicInteger writers = new AtomicInteger();
+        private final AtomicLong count = new AtomicLong();
+        private final AtomicLongArray values;
+
+        private Buffer(int size) {
+            this.values = new AtomicLongArray(size);
+        }
+
+        private int size() {
+            return (int) Math.min(count.get(), values.length());
+        }
+
+        private void update(long value) {
+            final long c = count.incrementAndGet();
+            if (c <= values.length()) {
+                values.set((int) c - 1, value);
+            } else {
+                final long r = ThreadLocalRandom.current().nextLong(c);
+                if (r < values.length()) {
+                    values.set((int) r, value);
+                }
+            }
+        }
+
+        private Snapshot getSnapshot() {
+            final long[] copy = new long[size()];
+            for (int i = 0; i < copy.length; i++) {
+                copy[i] = values.get(i);
+            }
+            return new UniformSnapshot(copy);
+        }
+
+        private void clear() {
+            count.set(0);
+        }
+    }
+}
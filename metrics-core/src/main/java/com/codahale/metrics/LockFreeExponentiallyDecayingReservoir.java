@@ -0,0 +1,279 @@
+package com.codahale.metrics;
+
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static java.lang.Double.doubleToRawLongBits;
+import static java.lang.Double.longBitsToDouble;
+import static java.lang.Math.exp;
+import static java.lang.Math.min;
+
+/**
+ * A lock-free variant of {@link ExponentiallyDecayingReservoir}. Uses the same forward-decaying
+ * priority reservoir sampling method, but keeps the samples in primitive arrays instead of a
+ * skip list guarded by a read/write lock.
+ * <p>
+ * Samples are appended to a fixed-capacity buffer by claiming a slot with a single atomic
+ * increment. Samples whose priority is not higher than the lowest retained priority are rejected
+ * without touching shared state at all. When the buffer fills up, or once an hour when the
+ * landmark is rescaled, a new buffer holding only the highest priority samples is built and
+ * swapped in with a compare-and-set, so updating threads never wait for each other. A sample
+ * racing with such a swap may be dropped, which does not bias the reservoir.
+ *
+ * @see ExponentiallyDecayingReservoir
+ * @see <a href="http://dimacs.rutgers.edu/~graham/pubs/papers/fwddecay.pdf">
+ * Cormode et al. Forward Decay: A Practical Time Decay Model for Streaming Systems. ICDE '09:
+ * Proceedings of the 2009 IEEE International Conference on Data Engineering (2009)</a>
+ */
+public class LockFreeExponentiallyDecayingReservoir implements Reservoir {
+    private static final int DEFAULT_SIZE = 1028;
+    private static final double DEFAULT_ALPHA = 0.015;
+    private static final long RESCALE_THRESHOLD = TimeUnit.HOURS.toNanos(1);
+
+    private final AtomicReference<State> state;
+    private final double alpha;
+    private final int size;
+    private final Clock clock;
+
+    /**
+     * Creates a new {@link LockFreeExponentiallyDecayingReservoir} of 1028 elements, which offers a
+     * 99.9% confidence level with a 5% margin of error assuming a normal distribution, and an alpha
+     * factor of 0.015, which heavily biases the reservoir to the past 5 minutes of measurements.
+     */
+    public LockFreeExponentiallyDecayingReservoir() {
+        this(DEFAULT_SIZE, DEFAULT_ALPHA);
+    }
+
+    /**
+     * Creates a new {@link LockFreeExponentiallyDecayingReservoir}.
+     *
+     * @param size  the number of samples to keep in the sampling reservoir
+     * @param alpha the exponential decay factor; the higher this is, the more biased the reservoir
+     *              will be towards newer values
+     */
+    public LockFreeExponentiallyDecayingReservoir(int size, double alpha) {
+        this(size, alpha, Clock.defaultClock());
+    }
+
+    /**
+     * Creates a new {@link LockFreeExponentiallyDecayingReservoir}.
+     *
+     * @param size  the number of samples to keep in the sampling reservoir
+     * @param alpha the exponential decay factor; the higher this is, the more biased the reservoir
+     *              will be towards newer values
+     * @param clock the clock used to timestamp samples and track rescaling
+     */
+    public LockFreeExponentiallyDecayingReservoir(int size, double alpha, Clock clock) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("size must be positive: " + size);
+        }
+        this.alpha = alpha;
+        this.size = size;
+        this.clock = clock;
+        this.state = new AtomicReference<>(new State(currentTimeInSeconds(), clock.getTick(), 0,
+                new long[size * 2], new double[size * 2], new double[size * 2], 0));
+    }
+
+    @Override
+    public int size() {
+        final State current = state.get();
+        return min(size, min(current.cursor.get(), current.capacity()));
+    }
+
+    @Override
+    public void update(long value) {
+        update(value, currentTimeInSeconds());
+    }
+
+    /**
+     * Adds an old value with a fixed timestamp to the reservoir.
+     *
+     * @param value     the value to be added
+     * @param timestamp the epoch timestamp of {@code value} in seconds
+     */
+    public void update(long value, long timestamp) {
+        update(value, timestamp, clock.getTick());
+    }
+
+    @Override
+    public void update(long[] values, int offset, int length) {
+        final long timestamp = currentTimeInSeconds();
+        final long now = clock.getTick();
+        for (int i = offset; i < offset + length; i++) {
+            update(values[i], timestamp, now);
+        }
+    }
+
+    private void update(long value, long timestamp, long now) {
+        final double random = ThreadLocalRandom.current().nextDouble();
+        while (true) {
+            final State current = currentState(now);
+            final double itemWeight = weight(timestamp - current.startTime);
+            final double priority = itemWeight / random;
+            if (priority <= current.threshold || current.offer(value, itemWeight, priority)) {
+                return;
+            }
+            // the buffer is full, keep the highest priority samples and retry against them
+            state.compareAndSet(current, current.next(size, current.startTime, current.startTick, 1.0));
+        }
+    }
+
+    @Override
+    public Snapshot getSnapshot() {
+        final State current = currentState(clock.getTick());
+        final int limit = min(current.cursor.get(), current.capacity());
+        final long[] values = new long[limit];
+        final double[] weights = new double[limit];
+        final double[] priorities = new double[limit];
+        final int count = current.copyTo(size, 1.0, values, weights, priorities);
+        if (count < limit) {
+            return new WeightedSnapshot(Arrays.copyOf(values, count), Arrays.copyOf(weights, count));
+        }
+        return new WeightedSnapshot(values, weights);
+    }
+
+    /*
+     * See ExponentiallyDecayingReservoir#rescale for the reasoning behind moving the landmark.
+     * Instead of rescaling the samples in place, every thread that observes a stale landmark
+     * builds a rescaled copy and tries to install it; the first one to succeed wins.
+     */
+    private State currentState(long now) {
+        State current = state.get();
+        while (now - current.startTick >= RESCALE_THRESHOLD) {
+            final long startTime = currentTimeInSeconds();
+            final double scalingFactor = exp(-alpha * (startTime - current.startTime));
+            final State rescaled = current.next(size, startTime, now, scalingFactor);
+            if (state.compareAndSet(current, rescaled)) {
+                return rescaled;
+            }
+            current = state.get();
+        }
+        return current;
+    }
+
+    private long currentTimeInSeconds() {
+        return TimeUnit.MILLISECONDS.toSeconds(clock.getTime());
+    }
+
+    private double weight(long t) {
+        return exp(alpha * t);
+    }
+
+    /**
+     * An append-only buffer of weighted samples relative to a single landmark. A slot is published
+     * by writing its priority last; a zero priority marks a slot which was claimed but not yet
+     * written.
+     */
+    private static final class State {
+        private final long startTime;
+        private final long startTick;
+        private final double threshold;
+        private final long[] values;
+        private final double[] weights;
+        private final AtomicLongArray priorities;
+        private final AtomicInteger cursor;
+
+        private State(long startTime, long startTick, double threshold,
+                      long[] values, double[] weights, double[] priorities, int count) {
+            this.startTime = startTime;
+            this.startTick = startTick;
+            this.threshold = threshold;
+            this.values = values;
+            this.weights = weights;
+            this.priorities = new AtomicLongArray(values.length);
+            for (int i = 0; i < count; i++) {
+                this.priorities.lazySet(i, doubleToRawLongBits(priorities[i]));
+            }
+            this.cursor = new AtomicInteger(count);
+        }
+
+        private int capacity() {
+            return values.length;
+        }
+
+        private boolean offer(long value, double weight, double priority) {
+            final int index = cursor.getAndIncrement();
+            if (index >= values.length) {
+                return false;
+            }
+            values[index] = value;
+            weights[index] = weight;
+            priorities.lazySet(index, doubleToRawLongBits(priority));
+            return true;
+        }
+
+        /**
+         * Creates a new buffer of the same capacity holding the {@code size} highest priority
+         * samples of this one, scaled by {@code scalingFactor}.
+         */
+        private State next(int size, long newStartTime, long newStartTick, double scalingFactor) {
+            final long[] nextValues = new long[values.length];
+            final double[] nextWeights = new double[values.length];
+            final double[] nextPriorities = new double[values.length];
+            final int count = copyTo(size, scalingFactor, nextValues, nextWeights, nextPriorities);
+
+            double nextThreshold = 0;
+            if (count >= size) {
+                nextThreshold = nextPriorities[0];
+                for (int i = 1; i < count; i++) {
+                    nextThreshold = Math.min(nextThreshold, nextPriorities[i]);
+                }
+            }
+            return new State(newStartTime, newStartTick, nextThreshold,
+                    nextValues, nextWeights, nextPriorities, count);
+        }
+
+        /**
+         * Copies at most {@code size} of the highest priority published samples, scaled by
+         * {@code scalingFactor}, dropping the ones whose weight decayed to zero.
+         *
+         * @return the number of samples copied
+         */
+        private int copyTo(int size, double scalingFactor,
+                           long[] outValues, double[] outWeights, double[] outPriorities) {
+            final int limit = min(min(cursor.get(), values.length), outValues.length);
+            int count = 0;
+            for (int i = 0; i < limit; i++) {
+                final long bits = priorities.get(i);
+                if (bits == 0) {
+                    continue;
+                }
+                final double weight = weights[i] * scalingFactor;
+                if (Double.compare(weight, 0) == 0) {
+                    continue;
+                }
+                outValues[count] = values[i];
+                outWeights[count] = weight;
+                outPriorities[count] = longBitsToDouble(bits) * scalingFactor;
+                count++;
+            }
+            return count <= size ? count : retainHighest(size, count, outValues, outWeights, outPriorities);
+        }
+
+        private static int retainHighest(int size, int count,
+                                         long[] values, double[] weights, double[] priorities) {
+            final double[] sorted = Arrays.copyOf(priorities, count);
+            Arrays.sort(sorted);
+            final double cutoff = sorted[count - size];
+            int ties = size;
+            for (int i = count - 1; i >= 0 && sorted[i] > cutoff; i--) {
+                ties--;
+            }
+
+            int retained = 0;
+            for (int i = 0; i < count; i++) {
+                if (priorities[i] > cutoff || (priorities[i] == cutoff && ties-- > 0)) {
+                    values[retained] = values[i];
+                    weights[retained] = weights[i];
+                    priorities[retained] = priorities[i];
+                    retained++;
+                }
+            }
+            return retained;
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.codahale.metrics;
+
+/**
+ * The bucket layout shared by {@link LogLinearReservoir} and {@link LogLinearSnapshot}. Values are
+ * split into power-of-two ranges, and each range is split into the same number of linear
+ * sub-buckets, so that every bucket is narrower than the configured number of significant decimal
+ * digits.
+ *
+ * @see <a href="http://hdrhistogram.org/">HdrHistogram</a>
+ */
+final class LogLinearBuckets {
+    private final int subBucketHalfCountMagnitude;
+    private final int subBucketHalfCount;
+    private final long subBucketMask;
+    private final int leadingZeroCountBase;
+    private final long highestTrackableValue;
+    private final int length;
+
+    LogLinearBuckets(int significantDigits, long highestTrackableValue) {
+        if (significantDigits < 1 || significantDigits > 5) {
+            throw new IllegalArgumentException("significantDigits must be in [1..5]: " + significantDigits);
+        }
+        if (highestTrackableValue < 2) {
+            throw new IllegalArgumentException("highestTrackableValue must be at least 2: " + highestTrackableValue);
+        }
+        final long largestValueWithSingleUnitResolution = 2 * (long) Math.pow(10, significantDigits);
+        final int subBucketCountMagnitude =
+                64 - Long.numberOfLeadingZeros(largestValueWithSingleUnitResolution - 1);
+        this.subBucketHalfCountMagnitude = subBucketCountMagnitude - 1;
+        this.subBucketHalfCount = 1 << subBucketHalfCountMagnitude;
+        this.subBucketMask = (1L << subBucketCountMagnitude) - 1;
+        this.leadingZeroCountBase = 64 - subBucketHalfCountMagnitude - 1;
+        this.highestTrackableValue = highestTrackableValue;
+
+        long smallestUntrackableValue = 1L << subBucketCountMagnitude;
+        int bucketCount = 1;
+        while (smallestUntrackableValue <= highestTrackableValue) {
+            if (smallestUntrackableValue > Long.MAX_VALUE / 2) {
+                bucketCount++;
+                break;
+            }
+            smallestUntrackableValue <<= 1;
+            bucketCount++;
+        }
+        this.length = (bucketCount + 1) * subBucketHalfCount;
+    }
+
+    /**
+     * Returns the number of buckets.
+     *
+     * @return the number of buckets
+     */
+    int length() {
+        return length;
+    }
+
+    /**
+     * Returns the index of the bucket {@code value} falls into. Negative values are counted as zero,
+     * and values above the highest trackable value are counted as the highest trackable value.
+     *
+     * @param value a recorded value
+     * @return the index of its bucket
+     */
+    int indexOf(long value) {
+        final long clamped = value < 0 ? 0 : Math.min(value, highestTrackableValue);
+        final int bucketIndex = leadingZeroCountBase - Long.numberOfLeadingZeros(clamped | subBucketMask);
+        final int subBucketIndex = (int) (clamped >>> bucketIndex);
+        return ((bucketIndex + 1) << subBucketHalfCountMagnitude) + (subBucketIndex - subBucketHalfCount);
+    }
+
+    /**
+     * Returns the lowest value which falls into the bucket at {@code index}.
+     *
+     * @param index a bucket index
+     * @return the lowest value of that bucket
+     */
+    long lowestValueAt(int index) {
+        final int bucketIndex = bucketIndexAt(index);
+        final int subBucketIndex = (index & (subBucketHalfCount - 1)) + subBucketHalfCount;
+        return (long) (index < subBucketHalfCount ? index : subBucketIndex) << bucketIndex;
+    }
+
+    /**
+     * Returns the highest value which falls into the bucket at {@code index}.
+     *
+     * @param index a bucket index
+     * @return the highest value of that bucket
+     */
+    long highestValueAt(int index) {
+        final long lowest = lowestValueAt(index);
+        final long highest = lowest + (1L << bucketIndexAt(index)) - 1;
+        return highest < lowest ? Long.MAX_VALUE : highest;
+    }
+
+    private int bucketIndexAt(int index) {
+        return Math.max((index >> subBucketHalfCountMagnitude) - 1, 0);
+    }
+}
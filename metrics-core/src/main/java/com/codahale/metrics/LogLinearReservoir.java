@@ -0,0 +1,68 @@
+package com.codahale.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A {@link Reservoir} implementation which counts values in log-linear buckets instead of keeping
+ * samples, similar to HdrHistogram. Every bucket is narrower than the configured number of
+ * significant decimal digits, so quantiles are accurate to that precision, and the memory used by
+ * the reservoir is fixed up front no matter how many values are recorded.
+ * <p>
+ * An update is a single atomic increment, and {@link #getSnapshot()} reads the quantiles straight
+ * off the cumulative bucket counts without sorting anything. The reservoir is never reset, so its
+ * snapshots describe every value recorded since it was created.
+ *
+ * @see LogLinearSnapshot
+ * @see <a href="http://hdrhistogram.org/">HdrHistogram</a>
+ */
+public class LogLinearReservoir implements Reservoir {
+    private static final int DEFAULT_SIGNIFICANT_DIGITS = 2;
+    private static final long DEFAULT_HIGHEST_TRACKABLE_VALUE = TimeUnit.HOURS.toNanos(1);
+
+    private final LogLinearBuckets buckets;
+    private final AtomicLongArray counts;
+
+    /**
+     * Creates a new {@link LogLinearReservoir} with two significant digits which tracks values up to
+     * one hour in nanoseconds.
+     */
+    public LogLinearReservoir() {
+        this(DEFAULT_SIGNIFICANT_DIGITS, DEFAULT_HIGHEST_TRACKABLE_VALUE);
+    }
+
+    /**
+     * Creates a new {@link LogLinearReservoir}.
+     *
+     * @param significantDigits     the number of significant decimal digits to keep, in {@code [1..5]}
+     * @param highestTrackableValue the highest value to tell apart from lower ones; higher values
+     *                              are counted as this value, and negative values are counted as zero
+     */
+    public LogLinearReservoir(int significantDigits, long highestTrackableValue) {
+        this.buckets = new LogLinearBuckets(significantDigits, highestTrackableValue);
+        this.counts = new AtomicLongArray(buckets.length());
+    }
+
+    @Override
+    public int size() {
+        long count = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            count += counts.get(i);
+        }
+        return (int) Math.min(count, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public void update(long value) {
+        counts.incrementAndGet(buckets.indexOf(value));
+    }
+
+    @Override
+    public Snapshot getSnapshot() {
+        final long[] copy = new long[counts.length()];
+        for (int i = 0; i < copy.length; i++) {
+            copy[i] = counts.get(i);
+        }
+        return new LogLinearSnapshot(buckets, copy);
+    }
+}
@@ -0,0 +1,184 @@
+package com.codahale.metrics;
+
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.util.Arrays;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * A statistical snapshot of a {@link LogLinearReservoir}.
+ * <p>
+ * Only the non-empty buckets are kept. Quantiles and the maximum are reported as the highest value
+ * of their bucket, the minimum as the lowest value of its bucket, and the mean and standard
+ * deviation are computed from the bucket midpoints. {@link #getValues()} returns one value per
+ * non-empty bucket rather than one per recorded value, while {@link #size()} is the number of
+ * recorded values.
+ */
+public class LogLinearSnapshot extends Snapshot {
+    private final long[] lowestValues;
+    private final long[] highestValues;
+    private final long[] cumulativeCounts;
+    private final long count;
+
+    LogLinearSnapshot(LogLinearBuckets buckets, long[] counts) {
+        int nonEmpty = 0;
+        for (long c : counts) {
+            if (c > 0) {
+                nonEmpty++;
+            }
+        }
+
+        this.lowestValues = new long[nonEmpty];
+        this.highestValues = new long[nonEmpty];
+        this.cumulativeCounts = new long[nonEmpty];
+
+        long total = 0;
+        int j = 0;
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > 0) {
+                total += counts[i];
+                lowestValues[j] = buckets.lowestValueAt(i);
+                highestValues[j] = buckets.highestValueAt(i);
+                cumulativeCounts[j] = total;
+                j++;
+            }
+        }
+        this.count = total;
+    }
+
+    /**
+     * Returns the value at the given quantile.
+     *
+     * @param quantile a given quantile, in {@code [0..1]}
+     * @return the value in the distribution at {@code quantile}
+     */
+    @Override
+    public double getValue(double quantile) {
+        if (quantile < 0.0 || quantile > 1.0 || Double.isNaN(quantile)) {
+            throw new IllegalArgumentException(quantile + " is not in [0..1]");
+        }
+
+        if (count == 0) {
+            return 0.0;
+        }
+
+        final long rank = Math.max(1, (long) Math.ceil(quantile * count));
+        int pos = Arrays.binarySearch(cumulativeCounts, rank);
+        if (pos < 0) {
+            pos = -pos - 1;
+        }
+        return highestValues[Math.min(pos, highestValues.length - 1)];
+    }
+
+    /**
+     * Returns the number of values recorded in the snapshot.
+     *
+     * @return the number of values
+     */
+    @Override
+    public int size() {
+        return (int) Math.min(count, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Returns the highest value of every non-empty bucket.
+     *
+     * @return the highest value of every non-empty bucket, in ascending order
+     */
+    @Override
+    public long[] getValues() {
+        return Arrays.copyOf(highestValues, highestValues.length);
+    }
+
+    /**
+     * Returns the highest value in the snapshot.
+     *
+     * @return the highest value
+     */
+    @Override
+    public long getMax() {
+        if (count == 0) {
+            return 0;
+        }
+        return highestValues[highestValues.length - 1];
+    }
+
+    /**
+     * Returns the lowest value in the snapshot.
+     *
+     * @return the lowest value
+     */
+    @Override
+    public long getMin() {
+        if (count == 0) {
+            return 0;
+        }
+        return lowestValues[0];
+    }
+
+    /**
+     * Returns the arithmetic mean of the values in the snapshot.
+     *
+     * @return the arithmetic mean
+     */
+    @Override
+    public double getMean() {
+        if (count == 0) {
+            return 0;
+        }
+
+        double sum = 0;
+        long previous = 0;
+        for (int i = 0; i < cumulativeCounts.length; i++) {
+            sum += midpoint(i) * (cumulativeCounts[i] - previous);
+            previous = cumulativeCounts[i];
+        }
+        return sum / count;
+    }
+
+    /**
+     * Returns the standard deviation of the values in the snapshot.
+     *
+     * @return the standard deviation value
+     */
+    @Override
+    public double getStdDev() {
+        // two-pass algorithm for variance, avoids numeric overflow
+
+        if (count <= 1) {
+            return 0;
+        }
+
+        final double mean = getMean();
+        double sum = 0;
+        long previous = 0;
+        for (int i = 0; i < cumulativeCounts.length; i++) {
+            final double diff = midpoint(i) - mean;
+            sum += diff * diff * (cumulativeCounts[i] - previous);
+            previous = cumulativeCounts[i];
+        }
+
+        final double variance = sum / (count - 1);
+        return Math.sqrt(variance);
+    }
+
+    /**
+     * Writes the highest value of every non-empty bucket to the given stream.
+     *
+     * @param output an output stream
+     */
+    @Override
+    public void dump(OutputStream output) {
+        try (PrintWriter out = new PrintWriter(new OutputStreamWriter(output, UTF_8))) {
+            for (long value : highestValues) {
+                out.printf("%d%n", value);
+            }
+        }
+    }
+
+    private double midpoint(int i) {
+        return lowestValues[i] + (highestValues[i] - lowestValues[i]) / 2.0;
+    }
+}
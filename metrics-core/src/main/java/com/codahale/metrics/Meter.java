@@ -15,6 +15,9 @@ public class Meter implements Metered {
     private final LongAdder count = new LongAdder();
     private final long startTime;
     private final Clock clock;
+    private final boolean ticked;
+    // only accessed by the ticker
+    private long lastTickCount;
 
     /**
      * Creates a new {@link Meter}.
@@ -51,6 +54,33 @@ public class Meter implements Metered {
         this.movingAverages = movingAverages;
         this.clock = clock;
         this.startTime = this.clock.getTick();
+        this.ticked = false;
+    }
+
+    /**
+     * Creates a new {@link Meter} whose moving averages are advanced by the given ticker, so that
+     * marking it only adds to its count.
+     *
+     * @param ticker the {@link MeterTicker} advancing the moving averages
+     */
+    public Meter(MeterTicker ticker) {
+        this(new ExponentialMovingAverages(), Clock.defaultClock(), ticker);
+    }
+
+    /**
+     * Creates a new {@link Meter} whose moving averages are advanced by the given ticker, so that
+     * marking it only adds to its count.
+     *
+     * @param movingAverages the {@link MovingAverages} implementation to use
+     * @param clock          the clock to use for the meter ticks
+     * @param ticker         the {@link MeterTicker} advancing the moving averages
+     */
+    public Meter(MovingAverages movingAverages, Clock clock, MeterTicker ticker) {
+        this.movingAverages = movingAverages;
+        this.clock = clock;
+        this.startTime = this.clock.getTick();
+        this.ticked = true;
+        ticker.register(this);
     }
 
     /**
@@ -66,11 +96,25 @@ public class Meter implements Metered {
      * @param n the number of events
      */
     public void mark(long n) {
+        if (ticked) {
+            count.add(n);
+            return;
+        }
         movingAverages.tickIfNecessary();
         count.add(n);
         movingAverages.update(n);
     }
 
+    /**
+     * Feeds the events marked since the previous tick into the moving averages, and ticks them.
+     */
+    void tick() {
+        final long currentCount = count.sum();
+        movingAverages.update(currentCount - lastTickCount);
+        lastTickCount = currentCount;
+        movingAverages.tickIfNecessary();
+    }
+
     @Override
     public long getCount() {
         return count.sum();
@@ -78,13 +122,13 @@ public class Meter implements Metered {
 
     @Override
     public double getFifteenMinuteRate() {
-        movingAverages.tickIfNecessary();
+        tickIfNecessary();
         return movingAverages.getM15Rate();
     }
 
     @Override
     public double getFiveMinuteRate() {
-        movingAverages.tickIfNecessary();
+        tickIfNecessary();
         return movingAverages.getM5Rate();
     }
 
@@ -100,7 +144,14 @@ public class Meter implements Metered {
 
     @Override
     public double getOneMinuteRate() {
-        movingAverages.tickIfNecessary();
+        tickIfNecessary();
         return movingAverages.getM1Rate();
     }
+
+    private void tickIfNecessary() {
+        // the ticker has to feed the marked events into the moving averages before ticking them
+        if (!ticked) {
+            movingAverages.tickIfNecessary();
+        }
+    }
 }
@@ -0,0 +1,130 @@
+package com.codahale.metrics;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.ref.WeakReference;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * A background ticker which advances the moving averages of many {@link Meter}s.
+ * <p>
+ * A meter created with a ticker only adds to its count when it is marked. Every five seconds, the
+ * ticker feeds the events counted since its previous run into the meter's {@link MovingAverages}
+ * and ticks them, so marking a meter neither reads the clock nor touches the moving averages.
+ * The rates of such a meter are at most one tick interval behind.
+ * <p>
+ * Meters are held weakly, so a meter which is no longer referenced anywhere else is dropped by the
+ * ticker too. The meters of {@link Timer}s can be ticked as well, and {@link #meters()} and
+ * {@link #timers(Supplier)} let a {@link MetricRegistry} create ticked meters and timers:
+ * <pre>{@code
+ * registry.timer("requests", ticker.timers(ExponentiallyDecayingReservoir::new))
+ * }</pre>
+ */
+public class MeterTicker implements AutoCloseable {
+    private static final Logger LOG = LoggerFactory.getLogger(MeterTicker.class);
+    private static final long TICK_INTERVAL = 5;
+    private static final AtomicInteger THREAD_COUNT = new AtomicInteger();
+
+    private static class DefaultTickerHolder {
+        private static final MeterTicker DEFAULT_TICKER = new MeterTicker();
+    }
+
+    /**
+     * Returns the ticker shared by the whole JVM, which is started the first time it is used.
+     *
+     * @return the default ticker
+     */
+    public static MeterTicker defaultTicker() {
+        return DefaultTickerHolder.DEFAULT_TICKER;
+    }
+
+    private final Queue<WeakReference<Meter>> meters = new ConcurrentLinkedQueue<>();
+    private final ScheduledExecutorService executor;
+    private final boolean shutdownExecutorOnClose;
+    private final ScheduledFuture<?> scheduledFuture;
+
+    /**
+     * Creates a new {@link MeterTicker} running on a daemon thread of its own.
+     */
+    public MeterTicker() {
+        this(Executors.newSingleThreadScheduledExecutor(r -> {
+            final Thread t = new Thread(r, "metrics-meter-ticker-" + THREAD_COUNT.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        }), true);
+    }
+
+    /**
+     * Creates a new {@link MeterTicker} running on the given executor.
+     *
+     * @param executor                the executor to tick the meters on
+     * @param shutdownExecutorOnClose if true, the executor is shut down when the ticker is closed
+     */
+    public MeterTicker(ScheduledExecutorService executor, boolean shutdownExecutorOnClose) {
+        this.executor = executor;
+        this.shutdownExecutorOnClose = shutdownExecutorOnClose;
+        this.scheduledFuture = executor.scheduleAtFixedRate(this::tick, TICK_INTERVAL, TICK_INTERVAL, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Returns a supplier of meters advanced by this ticker, to be passed to
+     * {@link MetricRegistry#meter(String, MetricRegistry.MetricSupplier)}.
+     *
+     * @return a supplier of ticked meters
+     */
+    public MetricRegistry.MetricSupplier<Meter> meters() {
+        return () -> new Meter(this);
+    }
+
+    /**
+     * Returns a supplier of timers whose meters are advanced by this ticker, to be passed to
+     * {@link MetricRegistry#timer(String, MetricRegistry.MetricSupplier)}.
+     *
+     * @param reservoirSupplier the supplier of the reservoirs of the timers
+     * @return a supplier of ticked timers
+     */
+    public MetricRegistry.MetricSupplier<Timer> timers(Supplier<Reservoir> reservoirSupplier) {
+        return () -> new Timer(reservoirSupplier.get(), this);
+    }
+
+    void register(Meter meter) {
+        meters.add(new WeakReference<>(meter));
+    }
+
+    void tick() {
+        final Iterator<WeakReference<Meter>> iterator = meters.iterator();
+        while (iterator.hasNext()) {
+            final Meter meter = iterator.next().get();
+            if (meter == null) {
+                iterator.remove();
+            } else {
+                try {
+                    meter.tick();
+                } catch (RuntimeException ex) {
+                    // an exception would cancel the schedule of every other meter
+                    LOG.error("Exception thrown while ticking a meter. Exception was suppressed.", ex);
+                }
+            }
+        }
+    }
+
+    /**
+     * Stops ticking the meters.
+     */
+    @Override
+    public void close() {
+        scheduledFuture.cancel(false);
+        if (shutdownExecutorOnClose) {
+            executor.shutdown();
+        }
+    }
+}
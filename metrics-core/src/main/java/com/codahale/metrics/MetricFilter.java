@@ -10,7 +10,17 @@ public interface MetricFilter {
     MetricFilter ALL = (name, metric) -> true;
 
     static MetricFilter startsWith(String prefix) {
-        return (name, metric) -> name.startsWith(prefix);
+        return new MetricFilter() {
+            @Override
+            public boolean matches(String name, Metric metric) {
+                return name.startsWith(prefix);
+            }
+
+            @Override
+            public String getPrefix() {
+                return prefix;
+            }
+        };
     }
 
     static MetricFilter endsWith(String suffix) {
@@ -21,6 +31,23 @@ public interface MetricFilter {
         return (name, metric) -> name.contains(substring);
     }
 
+    /**
+     * Returns a filter which matches the metrics whose names carry the given tag.
+     *
+     * @param key   the key of the tag
+     * @param value the value of the tag
+     * @return a filter matching the metrics tagged with {@code key=value}
+     * @see MetricName#withTag(String, String)
+     */
+    static MetricFilter hasTag(String key, String value) {
+        final String tag = ';' + key + '=' + value;
+        return (name, metric) -> {
+            final int index = name.indexOf(tag);
+            final int end = index + tag.length();
+            return index >= 0 && (end == name.length() || name.charAt(end) == ';');
+        };
+    }
+
     /**
      * Returns {@code true} if the metric matches the filter; {@code false} otherwise.
      *
@@ -29,4 +56,16 @@ public interface MetricFilter {
      * @return {@code true} if the metric matches the filter
      */
     boolean matches(String name, Metric metric);
+
+    /**
+     * Returns a prefix which the names of all the metrics matching the filter start with. Sorted
+     * registries only test the metrics within the range of names starting with the prefix.
+     *
+     * @return the prefix of the names of the matching metrics, or an empty string if the names of
+     * matching metrics may start with anything
+     * @see MetricRegistry#MetricRegistry(java.util.function.Supplier, boolean)
+     */
+    default String getPrefix() {
+        return "";
+    }
 }
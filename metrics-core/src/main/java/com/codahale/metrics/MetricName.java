@@ -0,0 +1,317 @@
+package com.codahale.metrics;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Collections;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The name of a metric, resolved ahead of time so that it can be looked up cheaply on hot paths.
+ * <p>
+ * A {@link MetricName} wraps the dotted name built by {@link MetricRegistry#name(String, String...)}
+ * and precomputes its hash code. When passed to {@link MetricRegistry#resolveTimer(MetricName)} and the
+ * other lookup methods, it also remembers the metric it was resolved to, so that following lookups
+ * in the same registry return it without touching the registry's map. Integrations which create
+ * one {@link MetricName} per route or request method and keep it around therefore avoid building
+ * names and looking them up for every request.
+ * <p>
+ * A remembered metric is dropped as soon as any metric is removed from the registry, so a name
+ * never resolves to a metric which is no longer registered. A name can be used with several
+ * registries, but only remembers the metric of the registry it was last resolved in. Names created
+ * by {@link #of(String, String...)} are not interned: each call returns a new name, which is only
+ * worth keeping in a field.
+ * <p>
+ * A name can also carry tags, such as the method or the status of a request. Tagged names are
+ * registered under a key in the Graphite tag format, with the tags sorted by key, e.g.
+ * {@code http.requests;method=GET;status=200}, so that {@link MetricFilter#hasTag(String, String)}
+ * can select them and reporters can emit the tags natively. Tagged names are interned, and every
+ * name keeps the names derived from it by {@link #withTag(String, String)}, so that
+ * <pre>{@code
+ * private static final MetricName REQUESTS = MetricName.of("http", "requests");
+ * ...
+ * registry.timer(REQUESTS.withTag("method", method).withTag("status", status))
+ * }</pre>
+ * does not allocate once each combination of tags has been seen, as long as its name is still
+ * referenced. Interned names, and the names kept by other names, are only held weakly, so that tags
+ * with unbounded values, such as one per host or per customer, don't leak: a name which is no longer
+ * referenced, for instance because its metric was removed by an {@link IdleMetricSweeper}, is
+ * reclaimed by the garbage collector, and allocated again if its tags are seen again. Interned
+ * names are shared by
+ * every registry in the JVM, so they don't remember the metric they were resolved to, which would
+ * keep it reachable after its registry is discarded: the registry looks them up by their key.
+ */
+public final class MetricName implements Comparable<MetricName> {
+    private static final ConcurrentMap<String, WeakName> INTERNED = new ConcurrentHashMap<>();
+    private static final ReferenceQueue<MetricName> COLLECTED = new ReferenceQueue<>();
+
+    /**
+     * Creates a new {@link MetricName} from the given elements, like
+     * {@link MetricRegistry#name(String, String...)}. The name is not interned.
+     *
+     * @param name  the first element of the name
+     * @param names the remaining elements of the name
+     * @return a new {@link MetricName}
+     */
+    public static MetricName of(String name, String... names) {
+        final String key = MetricRegistry.name(name, names);
+        return new MetricName(key, key, Collections.emptySortedMap(), false);
+    }
+
+    /**
+     * Creates a new {@link MetricName} from a class name and elements, like
+     * {@link MetricRegistry#name(Class, String...)}.
+     *
+     * @param klass the first element of the name
+     * @param names the remaining elements of the name
+     * @return a new {@link MetricName}
+     */
+    public static MetricName of(Class<?> klass, String... names) {
+        return of(klass.getName(), names);
+    }
+
+    /**
+     * Returns the interned {@link MetricName} with the given name and tags.
+     *
+     * @param name the dotted name
+     * @param tags the tags, as alternating keys and values
+     * @return the interned {@link MetricName}
+     * @throws IllegalArgumentException if the tags are not pairs of keys and values, or if the name
+     *                                  or a tag contains a reserved character
+     */
+    public static MetricName tagged(String name, String... tags) {
+        if (tags.length % 2 != 0) {
+            throw new IllegalArgumentException("Tags must be pairs of keys and values");
+        }
+        final SortedMap<String, String> sorted = new TreeMap<>();
+        for (int i = 0; i < tags.length; i += 2) {
+            checkTag(tags[i], tags[i + 1]);
+            sorted.put(tags[i], tags[i + 1]);
+        }
+        return intern(name, sorted);
+    }
+
+    private static MetricName intern(String name, SortedMap<String, String> tags) {
+        if (name.indexOf(';') >= 0) {
+            throw new IllegalArgumentException("Tagged names must not contain ';': " + name);
+        }
+        final StringBuilder key = new StringBuilder(name);
+        for (Map.Entry<String, String> tag : tags.entrySet()) {
+            key.append(';').append(tag.getKey()).append('=').append(tag.getValue());
+        }
+
+        final MetricName existing = get(INTERNED, key.toString());
+        if (existing != null) {
+            return existing;
+        }
+        expungeCollected();
+        final MetricName created = new MetricName(key.toString(), name, Collections.unmodifiableSortedMap(tags), true);
+        return putIfAbsent(INTERNED, created.key, created);
+    }
+
+    private static MetricName get(ConcurrentMap<String, WeakName> names, String key) {
+        final WeakName name = names.get(key);
+        return name == null ? null : name.get();
+    }
+
+    /*
+     * Adds a name to a map of weakly held names, unless another one is already held under the key,
+     * and returns the name held under the key.
+     */
+    private static MetricName putIfAbsent(ConcurrentMap<String, WeakName> names, String key, MetricName name) {
+        final WeakName added = new WeakName(name, names, key);
+        while (true) {
+            final WeakName raced = names.putIfAbsent(key, added);
+            if (raced == null) {
+                return name;
+            }
+            final MetricName existing = raced.get();
+            if (existing != null) {
+                return existing;
+            }
+            if (names.replace(key, raced, added)) {
+                return name;
+            }
+        }
+    }
+
+    private static void expungeCollected() {
+        Reference<? extends MetricName> collected;
+        while ((collected = COLLECTED.poll()) != null) {
+            final WeakName name = (WeakName) collected;
+            name.names.remove(name.key, name);
+        }
+    }
+
+    private static void checkTag(String key, String value) {
+        if (key.isEmpty() || key.indexOf(';') >= 0 || key.indexOf('=') >= 0) {
+            throw new IllegalArgumentException("Invalid tag key: " + key);
+        }
+        if (value.isEmpty() || value.indexOf(';') >= 0) {
+            throw new IllegalArgumentException("Invalid tag value: " + value);
+        }
+    }
+
+    private final String key;
+    private final String name;
+    private final SortedMap<String, String> tags;
+    private final int hashCode;
+    private final boolean interned;
+    private volatile ConcurrentMap<String, ConcurrentMap<String, WeakName>> tagged;
+    private volatile Resolved resolved;
+
+    private MetricName(String key, String name, SortedMap<String, String> tags, boolean interned) {
+        this.key = key;
+        this.name = name;
+        this.tags = tags;
+        this.hashCode = key.hashCode();
+        this.interned = interned;
+    }
+
+    /**
+     * Returns the name under which the metric is registered, including its tags.
+     *
+     * @return the key of the metric
+     */
+    public String getKey() {
+        return key;
+    }
+
+    /**
+     * Returns the dotted name, without the tags.
+     *
+     * @return the dotted name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the tags, sorted by key.
+     *
+     * @return the tags
+     */
+    public SortedMap<String, String> getTags() {
+        return tags;
+    }
+
+    /**
+     * Returns the interned {@link MetricName} with the same name and tags as this one, plus the given
+     * tag, replacing any tag with the same key.
+     *
+     * @param key   the key of the tag
+     * @param value the value of the tag
+     * @return the interned {@link MetricName}
+     * @throws IllegalArgumentException if the name or the tag contains a reserved character
+     */
+    public MetricName withTag(String key, String value) {
+        final ConcurrentMap<String, ConcurrentMap<String, WeakName>> tagged = tagged();
+        ConcurrentMap<String, WeakName> byValue = tagged.get(key);
+        if (byValue == null) {
+            byValue = tagged.computeIfAbsent(key, k -> new ConcurrentHashMap<>());
+        }
+        final MetricName existing = get(byValue, value);
+        if (existing != null) {
+            return existing;
+        }
+
+        checkTag(key, value);
+        final SortedMap<String, String> withTag = new TreeMap<>(tags);
+        withTag.put(key, value);
+        return putIfAbsent(byValue, value, intern(name, withTag));
+    }
+
+    /*
+     * Creates the names derived from this one on first use, since most names never get any tag.
+     */
+    private ConcurrentMap<String, ConcurrentMap<String, WeakName>> tagged() {
+        ConcurrentMap<String, ConcurrentMap<String, WeakName>> current = tagged;
+        if (current == null) {
+            synchronized (this) {
+                current = tagged;
+                if (current == null) {
+                    current = new ConcurrentHashMap<>();
+                    tagged = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    @SuppressWarnings("unchecked")
+    <T extends Metric> T resolvedIn(AtomicLong removals, long count, Class<T> klass) {
+        final Resolved current = resolved;
+        if (current != null && current.removals == removals && current.count == count
+                && klass.isInstance(current.metric)) {
+            return (T) current.metric;
+        }
+        return null;
+    }
+
+    <T extends Metric> T resolve(AtomicLong removals, long count, T metric) {
+        if (!interned) {
+            this.resolved = new Resolved(removals, count, metric);
+        }
+        return metric;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof MetricName)) {
+            return false;
+        }
+        final MetricName that = (MetricName) o;
+        return hashCode == that.hashCode && key.equals(that.key);
+    }
+
+    @Override
+    public int hashCode() {
+        return hashCode;
+    }
+
+    @Override
+    public int compareTo(MetricName o) {
+        return key.compareTo(o.key);
+    }
+
+    @Override
+    public String toString() {
+        return key;
+    }
+
+    private static class Resolved {
+        // the removal counter of the registry, which doesn't keep the registry reachable
+        private final AtomicLong removals;
+        private final long count;
+        private final Metric metric;
+
+        private Resolved(AtomicLong removals, long count, Metric metric) {
+            this.removals = removals;
+            this.count = count;
+            this.metric = metric;
+        }
+    }
+
+    /**
+     * A weakly held name, which knows the map holding it, so that it can be removed from the map
+     * once the name is collected.
+     */
+    private static class WeakName extends WeakReference<MetricName> {
+        private final ConcurrentMap<String, WeakName> names;
+        private final String key;
+
+        private WeakName(MetricName name, ConcurrentMap<String, WeakName> names, String key) {
+            super(name, COLLECTED);
+            this.names = names;
+            this.key = key;
+        }
+    }
+}
@@ -1,20 +1,35 @@
 package com.codahale.metrics;
 
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.SortedMap;
 import java.util.SortedSet;
 import java.util.TreeMap;
 import java.util.TreeSet;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import com.codahale.metrics.SwitchableMetrics.Switchable;
+import com.codahale.metrics.SwitchableMetrics.SwitchableCounter;
+import com.codahale.metrics.SwitchableMetrics.SwitchableHistogram;
+import com.codahale.metrics.SwitchableMetrics.SwitchableMeter;
+import com.codahale.metrics.SwitchableMetrics.SwitchableTimer;
 
 /**
  * A registry of metric instances.
  */
 public class MetricRegistry implements MetricSet {
+    private static final Object MOUNTING = new Object();
+
     /**
      * Concatenates elements to form a dotted name, eliding any null values or empty strings.
      *
@@ -54,15 +69,105 @@ public class MetricRegistry implements MetricSet {
         }
     }
 
+    private final boolean sorted;
+    private final boolean switchable;
     private final ConcurrentMap<String, Metric> metrics;
     private final List<MetricRegistryListener> listeners;
+    private final MetricBuilder<Counter> counters;
+    private final MetricBuilder<Meter> meters;
+    private final MetricBuilder<Histogram> histograms;
+    private final MetricBuilder<Timer> timers;
+    private final AtomicLong removals;
+    private final boolean tracked;
+    private final Map<Class<?>, ConcurrentMap<String, Metric>> indexes;
+    private final List<Mount> mounts;
+    private final List<CardinalityLimit> limits;
+    private final Map<String, Boolean> switches;
 
     /**
      * Creates a new {@link MetricRegistry}.
      */
     public MetricRegistry() {
+        this(ExponentiallyDecayingReservoir::new);
+    }
+
+    /**
+     * Creates a new {@link MetricRegistry} whose histograms and timers created by
+     * {@link #histogram(String)} and {@link #timer(String)} use reservoirs from the given supplier,
+     * for example {@code LockFreeExponentiallyDecayingReservoir::new}.
+     *
+     * @param reservoirSupplier the supplier of reservoirs for new histograms and timers
+     */
+    public MetricRegistry(Supplier<Reservoir> reservoirSupplier) {
+        this(reservoirSupplier, false);
+    }
+
+    /**
+     * Creates a new {@link MetricRegistry} whose histograms and timers created by
+     * {@link #histogram(String)} and {@link #timer(String)} use reservoirs from the given supplier,
+     * and which optionally keeps its metrics sorted.
+     * <p>
+     * A sorted registry keeps its metrics and its per-type indexes in skip lists instead of hash
+     * maps. {@link #getNames()} and the unfiltered getters such as {@link #getTimers()} then return
+     * live, unmodifiable views of them instead of sorting a copy on every call, and the filtered
+     * getters copy the matching metrics in order. The filtered getters and
+     * {@link #removeMatching(MetricFilter)} only visit the names starting with the
+     * {@link MetricFilter#getPrefix() prefix} of the filter, so that
+     * {@code removeMatching(MetricFilter.startsWith("tenant.42."))} costs time proportional to the
+     * number of metrics it removes. Registering and looking up metrics costs
+     * {@code O(log n)} instead of {@code O(1)}, so this pays off for large registries which are
+     * reported more often than they are modified.
+     *
+     * @param reservoirSupplier the supplier of reservoirs for new histograms and timers
+     * @param sorted            whether to keep the metrics sorted by name
+     */
+    public MetricRegistry(Supplier<Reservoir> reservoirSupplier, boolean sorted) {
+        this(reservoirSupplier, sorted, false);
+    }
+
+    /**
+     * Creates a new {@link MetricRegistry} whose histograms and timers created by
+     * {@link #histogram(String)} and {@link #timer(String)} use reservoirs from the given supplier,
+     * which optionally keeps its metrics sorted, and whose metrics can optionally be switched off.
+     * <p>
+     * The counters, histograms, meters and timers created by a switchable registry drop their
+     * updates while they are {@link #setEnabled(String, boolean) disabled}, at the cost of a
+     * volatile read per update while they are enabled. Disabling them at runtime, for instance to
+     * shed the cost of expensive timers during an incident, keeps them registered, so that
+     * enabling them again resumes recording in the same metrics. Metrics created from a
+     * {@link MetricSupplier} or registered explicitly cannot be switched off.
+     *
+     * @param reservoirSupplier the supplier of reservoirs for new histograms and timers
+     * @param sorted            whether to keep the metrics sorted by name
+     * @param switchable        whether the metrics created by the registry can be switched off
+     * @see #setEnabled(String, boolean)
+     */
+    public MetricRegistry(Supplier<Reservoir> reservoirSupplier, boolean sorted, boolean switchable) {
+        this.sorted = sorted;
+        this.switchable = switchable;
         this.metrics = buildMap();
         this.listeners = new CopyOnWriteArrayList<>();
+        this.mounts = new CopyOnWriteArrayList<>();
+        this.limits = new CopyOnWriteArrayList<>();
+        this.switches = new HashMap<>();
+        this.counters = MetricBuilder.counters(switchable ? this : null);
+        this.meters = MetricBuilder.meters(switchable ? this : null);
+        this.histograms = MetricBuilder.histograms(reservoirSupplier, switchable ? this : null);
+        this.timers = MetricBuilder.timers(reservoirSupplier, switchable ? this : null);
+        this.removals = new AtomicLong();
+        // maps from buildMap() overrides may drop metrics on their own, so neither names nor
+        // indexes can keep track of them
+        this.tracked = metrics.getClass() == ConcurrentHashMap.class
+                || metrics.getClass() == ConcurrentSkipListMap.class;
+        this.indexes = tracked ? buildIndexes(metrics instanceof ConcurrentSkipListMap) : Collections.emptyMap();
+    }
+
+    private static Map<Class<?>, ConcurrentMap<String, Metric>> buildIndexes(boolean sorted) {
+        final Map<Class<?>, ConcurrentMap<String, Metric>> indexes = new HashMap<>();
+        for (Class<?> type : new Class<?>[]{Gauge.class, Counter.class, Histogram.class, Meter.class, Timer.class}) {
+            indexes.put(type, sorted ? new ConcurrentSkipListMap<>() : new ConcurrentHashMap<>());
+        }
+        return indexes;
     }
 
     /**
@@ -73,7 +178,7 @@ public class MetricRegistry implements MetricSet {
      * @return a new {@link ConcurrentMap}
      */
     protected ConcurrentMap<String, Metric> buildMap() {
-        return new ConcurrentHashMap<>();
+        return sorted ? new ConcurrentSkipListMap<>() : new ConcurrentHashMap<>();
     }
 
     /**
@@ -149,8 +254,14 @@ public class MetricRegistry implements MetricSet {
         } else if (metric instanceof MetricSet) {
             registerAll(name, (MetricSet) metric);
         } else {
-            final Metric existing = metrics.putIfAbsent(name, metric);
+            final Metric existing = isSwitchable(metric)
+                    ? putSwitchable(name, (Switchable) metric)
+                    : metrics.putIfAbsent(name, metric);
             if (existing == null) {
+                addToIndexes(name, metric);
+                if (!limits.isEmpty()) {
+                    count(name);
+                }
                 onMetricAdded(name, metric);
             } else {
                 throw new IllegalArgumentException("A metric named " + name + " already exists");
@@ -169,6 +280,228 @@ public class MetricRegistry implements MetricSet {
         registerAll(null, metrics);
     }
 
+    /**
+     * Mounts another registry under the given prefix, so that its metrics appear in this registry
+     * under their names prefixed with {@code prefix}.
+     * <p>
+     * Unlike {@link #register(String, Metric) registering} the other registry, which copies each
+     * of its metrics into this registry, mounting it only keeps a reference to it: the names,
+     * getters and {@link #getMetrics()} of this registry look its metrics up when they are called,
+     * and listeners of this registry are added to the other registry with their names prefixed.
+     * Metrics are still created and removed through the registry they belong to, and a metric of
+     * this registry hides a metric of a mounted registry with the same name, from the getters as
+     * well as from the listeners.
+     *
+     * @param prefix   the prefix of the names of the metrics of {@code registry}
+     * @param registry the registry to mount
+     * @throws IllegalArgumentException if the prefix is empty or already used, or if the registry
+     *                                  is this registry or mounts it, directly or not
+     */
+    public void mount(String prefix, MetricRegistry registry) throws IllegalArgumentException {
+        if (prefix == null || prefix.isEmpty()) {
+            throw new IllegalArgumentException("prefix must not be empty");
+        }
+        if (registry == this) {
+            throw new IllegalArgumentException("A registry can't be mounted in itself");
+        }
+        // a single lock for every registry, so that two registries can't be mounted in each other
+        // concurrently
+        synchronized (MOUNTING) {
+            if (registry.reaches(this)) {
+                throw new IllegalArgumentException("A registry can't be mounted in a registry it mounts");
+            }
+            synchronized (mounts) {
+                for (Mount mount : mounts) {
+                    if (mount.prefix.equals(prefix)) {
+                        throw new IllegalArgumentException("A registry is already mounted under " + prefix);
+                    }
+                }
+                final Mount mount = new Mount(prefix, registry, metrics);
+                mounts.add(mount);
+                for (MetricRegistryListener listener : listeners) {
+                    mount.forward(listener);
+                }
+            }
+        }
+    }
+
+    /*
+     * Whether the given registry is this registry or is mounted in it, directly or not.
+     */
+    private boolean reaches(MetricRegistry registry) {
+        if (registry == this) {
+            return true;
+        }
+        for (Mount mount : mounts) {
+            if (mount.registry.reaches(registry)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Unmounts the registry mounted under the given prefix, notifying the listeners of this registry
+     * that its metrics were removed.
+     *
+     * @param prefix the prefix the registry was mounted under
+     * @return whether or not a registry was unmounted
+     */
+    public boolean unmount(String prefix) {
+        synchronized (mounts) {
+            for (Mount mount : mounts) {
+                if (mount.prefix.equals(prefix)) {
+                    mounts.remove(mount);
+                    mount.stopForwarding();
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Limits the number of metrics whose names start with the given prefix, followed by a dot.
+     * <p>
+     * Once the limit is reached, {@link #counter(String)}, {@link #histogram(String)},
+     * {@link #meter(String)}, {@link #timer(String)} and their variants no longer create metrics
+     * under the prefix, but return a metric of the same type shared by every rejected name and
+     * registered as {@code prefix.overflow.counter}, {@code prefix.overflow.histogram},
+     * {@code prefix.overflow.meter} or {@code prefix.overflow.timer}, and increment the
+     * {@link Counter} registered as {@code prefix.rejected}. Metrics which are registered
+     * explicitly, such as gauges, are never rejected, but count towards the limit. Removing metrics
+     * makes room for new ones again.
+     * <p>
+     * The limit is checked before a metric is created, so metrics created concurrently may exceed it
+     * by the number of threads creating them. Setting a limit for a prefix which already has one
+     * replaces it. Limits may be nested, in which case the metrics tracking the rejections of a
+     * limit don't count towards the limits enclosing it.
+     *
+     * @param prefix     the prefix of the names of the limited metrics
+     * @param maxMetrics the maximum number of metrics under the prefix
+     * @throws IllegalArgumentException if the prefix is empty or the maximum is negative
+     */
+    public void limitCardinality(String prefix, int maxMetrics) throws IllegalArgumentException {
+        if (prefix == null || prefix.isEmpty()) {
+            throw new IllegalArgumentException("prefix must not be empty");
+        }
+        if (maxMetrics < 0) {
+            throw new IllegalArgumentException("maxMetrics must not be negative: " + maxMetrics);
+        }
+        final CardinalityLimit limit = new CardinalityLimit(prefix, maxMetrics);
+        if (metrics.containsKey(limit.rejected) && !(metrics.get(limit.rejected) instanceof Counter)) {
+            throw new IllegalArgumentException(limit.rejected + " is already used for a different type of metric");
+        }
+        synchronized (limits) {
+            // published before the scan, so that a metric added or removed concurrently is either
+            // seen by the scan or counted once the scan is over
+            limits.removeIf(existing -> existing.prefix.equals(prefix));
+            limits.add(limit);
+            // the names of the limit are now excluded from the enclosing limits, which don't count them
+            for (CardinalityLimit other : limits) {
+                other.members.remove(limit.rejected);
+                other.members.removeAll(Arrays.asList(limit.overflows));
+            }
+            counter(limit.rejected);
+            for (String name : range(metrics, MetricFilter.startsWith(limit.names)).keySet()) {
+                if (covers(limit, name)) {
+                    limit.members.add(name);
+                }
+            }
+        }
+    }
+
+    /**
+     * Enables or disables the metrics named after the given prefix, or whose names start with it
+     * followed by a dot, including the ones created later. The most specific prefix wins, so
+     * {@code setEnabled("http", false)} followed by {@code setEnabled("http.health", true)}
+     * disables every {@code http} metric but the {@code http.health} ones, and an empty prefix
+     * applies to every metric.
+     *
+     * @param prefix  the prefix of the names of the metrics
+     * @param enabled whether the metrics record their updates
+     * @throws IllegalStateException if the registry is not switchable
+     * @see #MetricRegistry(Supplier, boolean, boolean)
+     */
+    public void setEnabled(String prefix, boolean enabled) {
+        if (!switchable) {
+            throw new IllegalStateException("The metrics of this registry can't be switched off");
+        }
+        synchronized (switches) {
+            switches.keySet().removeIf(name -> isUnder(prefix, name));
+            switches.put(prefix, enabled);
+            for (Map.Entry<String, Metric> entry : range(metrics, MetricFilter.startsWith(prefix)).entrySet()) {
+                if (isSwitchable(entry.getValue()) && isUnder(prefix, entry.getKey())) {
+                    ((Switchable) entry.getValue()).setEnabled(enabled);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns whether the metric with the given name records its updates, which is always the case
+     * unless the registry is switchable.
+     *
+     * @param name the name of the metric
+     * @return whether the metric is enabled
+     * @see #setEnabled(String, boolean)
+     */
+    public boolean isEnabled(String name) {
+        if (!switchable) {
+            return true;
+        }
+        synchronized (switches) {
+            String prefix = name;
+            while (true) {
+                final Boolean enabled = switches.get(prefix);
+                if (enabled != null) {
+                    return enabled;
+                }
+                if (prefix.isEmpty()) {
+                    return true;
+                }
+                final int dot = prefix.lastIndexOf('.');
+                prefix = dot < 0 ? "" : prefix.substring(0, dot);
+            }
+        }
+    }
+
+    private static boolean isUnder(String prefix, String name) {
+        return prefix.isEmpty() || name.equals(prefix)
+                || (name.startsWith(prefix) && name.charAt(prefix.length()) == '.');
+    }
+
+    private boolean isSwitchable(Metric metric) {
+        return switchable && metric instanceof Switchable && ((Switchable) metric).isOwnedBy(this);
+    }
+
+    /*
+     * Registers a switchable metric in the state of its prefix, without racing with setEnabled().
+     * The metric is only switched once registered, so that a metric which is already registered
+     * under another name keeps its state if this name is taken.
+     */
+    private Metric putSwitchable(String name, Switchable metric) {
+        synchronized (switches) {
+            final Metric existing = metrics.putIfAbsent(name, (Metric) metric);
+            if (existing == null) {
+                metric.setEnabled(isEnabled(name));
+            }
+            return existing;
+        }
+    }
+
+    /*
+     * Creates a metric in the state of its prefix, so that it doesn't record anything between its
+     * registration and the switching of its state.
+     */
+    private <T extends Metric> T newMetric(String name, MetricBuilder<T> builder) {
+        final T metric = builder.newMetric();
+        if (isSwitchable(metric)) {
+            ((Switchable) metric).setEnabled(isEnabled(name));
+        }
+        return metric;
+    }
+
     /**
      * Return the {@link Counter} registered under this name; or create and register
      * a new {@link Counter} if none is registered.
@@ -177,7 +510,24 @@ public class MetricRegistry implements MetricSet {
      * @return a new or pre-existing {@link Counter}
      */
     public Counter counter(String name) {
-        return getOrAdd(name, MetricBuilder.COUNTERS);
+        return getOrAdd(name, counters);
+    }
+
+    /**
+     * Return the {@link Counter} registered under this name; or create and register
+     * a new {@link Counter} if none is registered. The {@link Counter} is remembered by the name,
+     * so that looking it up again with the same name is cheap.
+     *
+     * @param name the name of the metric
+     * @return a new or pre-existing {@link Counter}
+     */
+    public Counter resolveCounter(MetricName name) {
+        final long removed = removals.get();
+        final Counter counter = name.resolvedIn(removals, removed, Counter.class);
+        if (counter != null) {
+            return counter;
+        }
+        return resolve(name, removed, counter(name.getKey()));
     }
 
     /**
@@ -210,7 +560,24 @@ public class MetricRegistry implements MetricSet {
      * @return a new or pre-existing {@link Histogram}
      */
     public Histogram histogram(String name) {
-        return getOrAdd(name, MetricBuilder.HISTOGRAMS);
+        return getOrAdd(name, histograms);
+    }
+
+    /**
+     * Return the {@link Histogram} registered under this name; or create and register
+     * a new {@link Histogram} if none is registered. The {@link Histogram} is remembered by the name,
+     * so that looking it up again with the same name is cheap.
+     *
+     * @param name the name of the metric
+     * @return a new or pre-existing {@link Histogram}
+     */
+    public Histogram resolveHistogram(MetricName name) {
+        final long removed = removals.get();
+        final Histogram histogram = name.resolvedIn(removals, removed, Histogram.class);
+        if (histogram != null) {
+            return histogram;
+        }
+        return resolve(name, removed, histogram(name.getKey()));
     }
 
     /**
@@ -243,7 +610,24 @@ public class MetricRegistry implements MetricSet {
      * @return a new or pre-existing {@link Meter}
      */
     public Meter meter(String name) {
-        return getOrAdd(name, MetricBuilder.METERS);
+        return getOrAdd(name, meters);
+    }
+
+    /**
+     * Return the {@link Meter} registered under this name; or create and register
+     * a new {@link Meter} if none is registered. The {@link Meter} is remembered by the name,
+     * so that looking it up again with the same name is cheap.
+     *
+     * @param name the name of the metric
+     * @return a new or pre-existing {@link Meter}
+     */
+    public Meter resolveMeter(MetricName name) {
+        final long removed = removals.get();
+        final Meter meter = name.resolvedIn(removals, removed, Meter.class);
+        if (meter != null) {
+            return meter;
+        }
+        return resolve(name, removed, meter(name.getKey()));
     }
 
     /**
@@ -276,7 +660,24 @@ public class MetricRegistry implements MetricSet {
      * @return a new or pre-existing {@link Timer}
      */
     public Timer timer(String name) {
-        return getOrAdd(name, MetricBuilder.TIMERS);
+        return getOrAdd(name, timers);
+    }
+
+    /**
+     * Return the {@link Timer} registered under this name; or create and register
+     * a new {@link Timer} if none is registered. The {@link Timer} is remembered by the name,
+     * so that looking it up again with the same name is cheap.
+     *
+     * @param name the name of the metric
+     * @return a new or pre-existing {@link Timer}
+     */
+    public Timer resolveTimer(MetricName name) {
+        final long removed = removals.get();
+        final Timer timer = name.resolvedIn(removals, removed, Timer.class);
+        if (timer != null) {
+            return timer;
+        }
+        return resolve(name, removed, timer(name.getKey()));
     }
 
     /**
@@ -334,6 +735,27 @@ public class MetricRegistry implements MetricSet {
     public boolean remove(String name) {
         final Metric metric = metrics.remove(name);
         if (metric != null) {
+            removals.incrementAndGet();
+            removeFromIndexes(name, metric);
+            if (!limits.isEmpty()) {
+                count(name);
+            }
+            onMetricRemoved(name, metric);
+            return true;
+        }
+        return false;
+    }
+
+    /*
+     * Removes the metric with the given name, unless it was replaced by another metric.
+     */
+    boolean remove(String name, Metric metric) {
+        if (metrics.remove(name, metric)) {
+            removals.incrementAndGet();
+            removeFromIndexes(name, metric);
+            if (!limits.isEmpty()) {
+                count(name);
+            }
             onMetricRemoved(name, metric);
             return true;
         }
@@ -346,7 +768,7 @@ public class MetricRegistry implements MetricSet {
      * @param filter a filter
      */
     public void removeMatching(MetricFilter filter) {
-        for (Map.Entry<String, Metric> entry : metrics.entrySet()) {
+        for (Map.Entry<String, Metric> entry : range(metrics, filter).entrySet()) {
             if (filter.matches(entry.getKey(), entry.getValue())) {
                 remove(entry.getKey());
             }
@@ -362,7 +784,13 @@ public class MetricRegistry implements MetricSet {
      * @param listener the listener that will be notified
      */
     public void addListener(MetricRegistryListener listener) {
-        listeners.add(listener);
+        // a registry mounted concurrently must either see the listener or be seen by it, not both
+        synchronized (mounts) {
+            listeners.add(listener);
+            for (Mount mount : mounts) {
+                mount.forward(listener);
+            }
+        }
 
         for (Map.Entry<String, Metric> entry : metrics.entrySet()) {
             notifyListenerOfAddedMetric(listener, entry.getValue(), entry.getKey());
@@ -375,7 +803,12 @@ public class MetricRegistry implements MetricSet {
      * @param listener the listener that will be removed
      */
     public void removeListener(MetricRegistryListener listener) {
-        listeners.remove(listener);
+        synchronized (mounts) {
+            listeners.remove(listener);
+            for (Mount mount : mounts) {
+                mount.stopForwarding(listener);
+            }
+        }
     }
 
     /**
@@ -384,7 +817,16 @@ public class MetricRegistry implements MetricSet {
      * @return the names of all the metrics
      */
     public SortedSet<String> getNames() {
-        return Collections.unmodifiableSortedSet(new TreeSet<>(metrics.keySet()));
+        if (mounts.isEmpty() && tracked && metrics instanceof ConcurrentNavigableMap) {
+            return Collections.unmodifiableSortedSet(((ConcurrentNavigableMap<String, Metric>) metrics).keySet());
+        }
+        final TreeSet<String> names = new TreeSet<>(metrics.keySet());
+        for (Mount mount : mounts) {
+            for (String name : mount.registry.getNames()) {
+                names.add(name(mount.prefix, name));
+            }
+        }
+        return Collections.unmodifiableSortedSet(names);
     }
 
     /**
@@ -486,14 +928,80 @@ public class MetricRegistry implements MetricSet {
         return getMetrics(Timer.class, filter);
     }
 
+    private <T extends Metric> T resolve(MetricName name, long removed, T metric) {
+        // a name rejected by a cardinality limit is not remembered, so that it keeps being counted
+        if (!tracked || (!limits.isEmpty() && metrics.get(name.getKey()) != metric)) {
+            return metric;
+        }
+        return name.resolve(removals, removed, metric);
+    }
+
+    /*
+     * Narrows sorted maps down to the names starting with the prefix of the filter.
+     */
+    private static Map<String, Metric> range(ConcurrentMap<String, Metric> map, MetricFilter filter) {
+        final String prefix = filter.getPrefix();
+        if (prefix.isEmpty() || !(map instanceof ConcurrentNavigableMap)) {
+            return map;
+        }
+        final ConcurrentNavigableMap<String, Metric> sorted = (ConcurrentNavigableMap<String, Metric>) map;
+        // the names starting with the prefix sort below the prefix with its last character incremented
+        for (int i = prefix.length() - 1; i >= 0; i--) {
+            final char c = prefix.charAt(i);
+            if (c != Character.MAX_VALUE) {
+                return sorted.subMap(prefix, true, prefix.substring(0, i) + (char) (c + 1), false);
+            }
+        }
+        return sorted.tailMap(prefix, true);
+    }
+
+    private void addToIndexes(String name, Metric metric) {
+        for (Map.Entry<Class<?>, ConcurrentMap<String, Metric>> index : indexes.entrySet()) {
+            if (index.getKey().isInstance(metric)) {
+                index.getValue().put(name, metric);
+            }
+        }
+        // the metric may have been removed before it was indexed
+        if (!indexes.isEmpty() && metrics.get(name) != metric) {
+            removeFromIndexes(name, metric);
+        }
+    }
+
+    private void removeFromIndexes(String name, Metric metric) {
+        for (ConcurrentMap<String, Metric> index : indexes.values()) {
+            index.remove(name, metric);
+        }
+    }
+
     @SuppressWarnings("unchecked")
     private <T extends Metric> T getOrAdd(String name, MetricBuilder<T> builder) {
         final Metric metric = metrics.get(name);
         if (builder.isInstance(metric)) {
             return (T) metric;
         } else if (metric == null) {
+            final CardinalityLimit limit = limits.isEmpty() ? null : reachedLimit(name);
+            T created = null;
+            if (limit != null) {
+                for (String overflow : limit.overflows) {
+                    final Metric existing = metrics.get(overflow);
+                    if (builder.isInstance(existing)) {
+                        counter(limit.rejected).inc();
+                        return (T) existing;
+                    }
+                }
+                created = newMetric(name, builder);
+                final String overflow = limit.overflowOf(created);
+                if (overflow != null) {
+                    counter(limit.rejected).inc();
+                    try {
+                        return register(overflow, created);
+                    } catch (IllegalArgumentException e) {
+                        return getOrAdd(overflow, builder);
+                    }
+                }
+            }
             try {
-                return register(name, builder.newMetric());
+                return register(name, created != null ? created : newMetric(name, builder));
             } catch (IllegalArgumentException e) {
                 final Metric added = metrics.get(name);
                 if (builder.isInstance(added)) {
@@ -504,11 +1012,69 @@ public class MetricRegistry implements MetricSet {
         throw new IllegalArgumentException(name + " is already used for a different type of metric");
     }
 
+    private CardinalityLimit reachedLimit(String name) {
+        for (CardinalityLimit limit : limits) {
+            if (covers(limit, name) && limit.members.size() >= limit.maxMetrics) {
+                return limit;
+            }
+        }
+        return null;
+    }
+
+    /*
+     * Whether a limit counts the metric with the given name, which it doesn't if the metric keeps
+     * track of the rejections of any limit, including a nested one.
+     */
+    private boolean covers(CardinalityLimit limit, String name) {
+        if (!limit.covers(name)) {
+            return false;
+        }
+        for (CardinalityLimit other : limits) {
+            if (other != limit && other.tracksRejectionsWith(name)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /*
+     * Counts or uncounts a metric which was just added or removed. Looking the name up rather than
+     * applying a delta keeps the count exact when the same name is added and removed concurrently,
+     * since the last update to run always sees the last change of the map.
+     */
+    private void count(String name) {
+        synchronized (limits) {
+            final boolean registered = metrics.containsKey(name);
+            for (CardinalityLimit limit : limits) {
+                if (covers(limit, name)) {
+                    if (registered) {
+                        limit.members.add(name);
+                    } else {
+                        limit.members.remove(name);
+                    }
+                }
+            }
+        }
+    }
+
     @SuppressWarnings("unchecked")
     private <T extends Metric> SortedMap<String, T> getMetrics(Class<T> klass, MetricFilter filter) {
+        final ConcurrentMap<String, Metric> index = indexes.get(klass);
+        if (mounts.isEmpty() && index instanceof ConcurrentNavigableMap && filter == MetricFilter.ALL) {
+            // the index only holds metrics of this type
+            return Collections.unmodifiableSortedMap((SortedMap<String, T>) (SortedMap<String, ?>) index);
+        }
         final TreeMap<String, T> timers = new TreeMap<>();
-        for (Map.Entry<String, Metric> entry : metrics.entrySet()) {
-            if (klass.isInstance(entry.getValue()) && filter.matches(entry.getKey(),
+        for (Mount mount : mounts) {
+            final MetricFilter mountFilter = mount.filter(filter);
+            if (mountFilter != null) {
+                for (Map.Entry<String, T> entry : mount.registry.getMetrics(klass, mountFilter).entrySet()) {
+                    timers.put(name(mount.prefix, entry.getKey()), entry.getValue());
+                }
+            }
+        }
+        for (Map.Entry<String, Metric> entry : range(index != null ? index : metrics, filter).entrySet()) {
+            if ((index != null || klass.isInstance(entry.getValue())) && filter.matches(entry.getKey(),
                     entry.getValue())) {
                 timers.put(entry.getKey(), (T) entry.getValue());
             }
@@ -579,7 +1145,243 @@ public class MetricRegistry implements MetricSet {
 
     @Override
     public Map<String, Metric> getMetrics() {
-        return Collections.unmodifiableMap(metrics);
+        if (mounts.isEmpty()) {
+            return Collections.unmodifiableMap(metrics);
+        }
+        final Map<String, Metric> composite = new HashMap<>();
+        for (Mount mount : mounts) {
+            for (Map.Entry<String, Metric> entry : mount.registry.getMetrics().entrySet()) {
+                composite.put(name(mount.prefix, entry.getKey()), entry.getValue());
+            }
+        }
+        composite.putAll(metrics);
+        return Collections.unmodifiableMap(composite);
+    }
+
+    /**
+     * A registry mounted under a prefix, and the listeners of the mounting registry forwarded to it.
+     */
+    private static class Mount {
+        private final String prefix;
+        private final MetricRegistry registry;
+        private final Map<String, Metric> hiding;
+        private final Map<MetricRegistryListener, MetricRegistryListener> forwarded;
+
+        private Mount(String prefix, MetricRegistry registry, Map<String, Metric> hiding) {
+            this.prefix = prefix;
+            this.registry = registry;
+            this.hiding = hiding;
+            this.forwarded = new HashMap<>();
+        }
+
+        private void forward(MetricRegistryListener listener) {
+            final MetricRegistryListener prefixed = new PrefixedListener(prefix, listener, hiding);
+            forwarded.put(listener, prefixed);
+            registry.addListener(prefixed);
+        }
+
+        private void stopForwarding(MetricRegistryListener listener) {
+            final MetricRegistryListener prefixed = forwarded.remove(listener);
+            if (prefixed != null) {
+                registry.removeListener(prefixed);
+            }
+        }
+
+        private void stopForwarding() {
+            final Map<String, Metric> unmounted = registry.getMetrics();
+            for (MetricRegistryListener prefixed : forwarded.values()) {
+                registry.removeListener(prefixed);
+                for (Map.Entry<String, Metric> entry : unmounted.entrySet()) {
+                    registry.notifyListenerOfRemovedMetric(entry.getKey(), entry.getValue(), prefixed);
+                }
+            }
+            forwarded.clear();
+        }
+
+        /*
+         * Translates a filter of the mounting registry to the mounted one, or returns null if none
+         * of the mounted metrics can match it.
+         */
+        private MetricFilter filter(MetricFilter filter) {
+            if (filter == MetricFilter.ALL) {
+                return MetricFilter.ALL;
+            }
+            final String mountPrefix = prefix + '.';
+            final String filterPrefix = filter.getPrefix();
+            final String prefixInMount;
+            if (filterPrefix.startsWith(mountPrefix)) {
+                prefixInMount = filterPrefix.substring(mountPrefix.length());
+            } else if (mountPrefix.startsWith(filterPrefix)) {
+                prefixInMount = "";
+            } else {
+                return null;
+            }
+            return new MetricFilter() {
+                @Override
+                public boolean matches(String name, Metric metric) {
+                    return filter.matches(name(prefix, name), metric);
+                }
+
+                @Override
+                public String getPrefix() {
+                    return prefixInMount;
+                }
+            };
+        }
+    }
+
+    /**
+     * The maximum number of metrics under a prefix, the names of the metrics counted towards it,
+     * and the names of the metrics rejected by it.
+     */
+    private static class CardinalityLimit {
+        private static final Class<?>[] OVERFLOW_TYPES = {Counter.class, Histogram.class, Meter.class, Timer.class};
+
+        private final String prefix;
+        private final int maxMetrics;
+        private final String names;
+        private final String rejected;
+        private final String[] overflows;
+        private final Set<String> members;
+
+        private CardinalityLimit(String prefix, int maxMetrics) {
+            this.prefix = prefix;
+            this.maxMetrics = maxMetrics;
+            this.names = prefix + '.';
+            this.rejected = name(prefix, "rejected");
+            this.overflows = new String[]{
+                    name(prefix, "overflow", "counter"),
+                    name(prefix, "overflow", "histogram"),
+                    name(prefix, "overflow", "meter"),
+                    name(prefix, "overflow", "timer")
+            };
+            this.members = ConcurrentHashMap.newKeySet();
+        }
+
+        private boolean covers(String name) {
+            return name.startsWith(names) && !tracksRejectionsWith(name);
+        }
+
+        private boolean tracksRejectionsWith(String name) {
+            if (name.equals(rejected)) {
+                return true;
+            }
+            for (String overflow : overflows) {
+                if (name.equals(overflow)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private String overflowOf(Metric metric) {
+            for (int i = 0; i < OVERFLOW_TYPES.length; i++) {
+                if (OVERFLOW_TYPES[i].isInstance(metric)) {
+                    return overflows[i];
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Forwards the events of a mounted registry with the names prefixed, except for the names of
+     * the metrics of the mounting registry, which hide the mounted ones.
+     */
+    private static class PrefixedListener implements MetricRegistryListener {
+        private final String prefix;
+        private final MetricRegistryListener listener;
+        private final Map<String, Metric> hiding;
+
+        private PrefixedListener(String prefix, MetricRegistryListener listener, Map<String, Metric> hiding) {
+            this.prefix = prefix;
+            this.listener = listener;
+            this.hiding = hiding;
+        }
+
+        private boolean isHidden(String name) {
+            return hiding.containsKey(name);
+        }
+
+        @Override
+        public void onGaugeAdded(String name, Gauge<?> gauge) {
+            final String prefixed = name(prefix, name);
+            if (!isHidden(prefixed)) {
+                listener.onGaugeAdded(prefixed, gauge);
+            }
+        }
+
+        @Override
+        public void onGaugeRemoved(String name) {
+            final String prefixed = name(prefix, name);
+            if (!isHidden(prefixed)) {
+                listener.onGaugeRemoved(prefixed);
+            }
+        }
+
+        @Override
+        public void onCounterAdded(String name, Counter counter) {
+            final String prefixed = name(prefix, name);
+            if (!isHidden(prefixed)) {
+                listener.onCounterAdded(prefixed, counter);
+            }
+        }
+
+        @Override
+        public void onCounterRemoved(String name) {
+            final String prefixed = name(prefix, name);
+            if (!isHidden(prefixed)) {
+                listener.onCounterRemoved(prefixed);
+            }
+        }
+
+        @Override
+        public void onHistogramAdded(String name, Histogram histogram) {
+            final String prefixed = name(prefix, name);
+            if (!isHidden(prefixed)) {
+                listener.onHistogramAdded(prefixed, histogram);
+            }
+        }
+
+        @Override
+        public void onHistogramRemoved(String name) {
+            final String prefixed = name(prefix, name);
+            if (!isHidden(prefixed)) {
+                listener.onHistogramRemoved(prefixed);
+            }
+        }
+
+        @Override
+        public void onMeterAdded(String name, Meter meter) {
+            final String prefixed = name(prefix, name);
+            if (!isHidden(prefixed)) {
+                listener.onMeterAdded(prefixed, meter);
+            }
+        }
+
+        @Override
+        public void onMeterRemoved(String name) {
+            final String prefixed = name(prefix, name);
+            if (!isHidden(prefixed)) {
+                listener.onMeterRemoved(prefixed);
+            }
+        }
+
+        @Override
+        public void onTimerAdded(String name, Timer timer) {
+            final String prefixed = name(prefix, name);
+            if (!isHidden(prefixed)) {
+                listener.onTimerAdded(prefixed, timer);
+            }
+        }
+
+        @Override
+        public void onTimerRemoved(String name) {
+            final String prefixed = name(prefix, name);
+            if (!isHidden(prefixed)) {
+                listener.onTimerRemoved(prefixed);
+            }
+        }
     }
 
     @FunctionalInterface
@@ -603,18 +1405,6 @@ public class MetricRegistry implements MetricSet {
             }
         };
 
-        MetricBuilder<Histogram> HISTOGRAMS = new MetricBuilder<Histogram>() {
-            @Override
-            public Histogram newMetric() {
-                return new Histogram(new ExponentiallyDecayingReservoir());
-            }
-
-            @Override
-            public boolean isInstance(Metric metric) {
-                return Histogram.class.isInstance(metric);
-            }
-        };
-
         MetricBuilder<Meter> METERS = new MetricBuilder<Meter>() {
             @Override
             public Meter newMetric() {
@@ -627,17 +1417,65 @@ public class MetricRegistry implements MetricSet {
             }
         };
 
-        MetricBuilder<Timer> TIMERS = new MetricBuilder<Timer>() {
-            @Override
-            public Timer newMetric() {
-                return new Timer();
-            }
+        static MetricBuilder<Counter> counters(MetricRegistry switchableOwner) {
+            return switchableOwner == null ? COUNTERS : new MetricBuilder<Counter>() {
+                @Override
+                public Counter newMetric() {
+                    return new SwitchableCounter(switchableOwner);
+                }
 
-            @Override
-            public boolean isInstance(Metric metric) {
-                return Timer.class.isInstance(metric);
-            }
-        };
+                @Override
+                public boolean isInstance(Metric metric) {
+                    return Counter.class.isInstance(metric);
+                }
+            };
+        }
+
+        static MetricBuilder<Meter> meters(MetricRegistry switchableOwner) {
+            return switchableOwner == null ? METERS : new MetricBuilder<Meter>() {
+                @Override
+                public Meter newMetric() {
+                    return new SwitchableMeter(switchableOwner);
+                }
+
+                @Override
+                public boolean isInstance(Metric metric) {
+                    return Meter.class.isInstance(metric);
+                }
+            };
+        }
+
+        static MetricBuilder<Histogram> histograms(Supplier<Reservoir> reservoirSupplier, MetricRegistry switchableOwner) {
+            return new MetricBuilder<Histogram>() {
+                @Override
+                public Histogram newMetric() {
+                    return switchableOwner != null
+                            ? new SwitchableHistogram(switchableOwner, reservoirSupplier.get())
+                            : new Histogram(reservoirSupplier.get());
+                }
+
+                @Override
+                public boolean isInstance(Metric metric) {
+                    return Histogram.class.isInstance(metric);
+                }
+            };
+        }
+
+        static MetricBuilder<Timer> timers(Supplier<Reservoir> reservoirSupplier, MetricRegistry switchableOwner) {
+            return new MetricBuilder<Timer>() {
+                @Override
+                public Timer newMetric() {
+                    return switchableOwner != null
+                            ? new SwitchableTimer(switchableOwner, reservoirSupplier.get())
+                            : new Timer(reservoirSupplier.get());
+                }
+
+                @Override
+                public boolean isInstance(Metric metric) {
+                    return Timer.class.isInstance(metric);
+                }
+            };
+        }
 
         T newMetric();
 
@@ -8,6 +8,7 @@ package com.codahale.metrics;
  * <ul>
  * <li>{@link ExponentialMovingAverages} exponential decaying average similar to the {@code top} Unix command.
  * <li>{@link SlidingTimeWindowMovingAverages} simple (unweighted) moving average
+ * <li>{@link RingBufferMovingAverages} simple (unweighted) moving average with a smaller footprint and constant-time reads
  * </ul>
  */
 public interface MovingAverages {
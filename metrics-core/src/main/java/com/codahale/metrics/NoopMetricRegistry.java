@@ -48,6 +48,46 @@ public final class NoopMetricRegistry extends MetricRegistry {
         // NOP
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void mount(String prefix, MetricRegistry registry) throws IllegalArgumentException {
+        // NOP
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean unmount(String prefix) {
+        return false;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void limitCardinality(String prefix, int maxMetrics) throws IllegalArgumentException {
+        // NOP
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void setEnabled(String prefix, boolean enabled) {
+        // NOP
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isEnabled(String name) {
+        return false;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -56,6 +96,14 @@ public final class NoopMetricRegistry extends MetricRegistry {
         return NoopCounter.INSTANCE;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Counter resolveCounter(MetricName name) {
+        return NoopCounter.INSTANCE;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -72,6 +120,14 @@ public final class NoopMetricRegistry extends MetricRegistry {
         return NoopHistogram.INSTANCE;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Histogram resolveHistogram(MetricName name) {
+        return NoopHistogram.INSTANCE;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -88,6 +144,14 @@ public final class NoopMetricRegistry extends MetricRegistry {
         return NoopMeter.INSTANCE;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Meter resolveMeter(MetricName name) {
+        return NoopMeter.INSTANCE;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -104,6 +168,14 @@ public final class NoopMetricRegistry extends MetricRegistry {
         return NoopTimer.INSTANCE;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Timer resolveTimer(MetricName name) {
+        return NoopTimer.INSTANCE;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -400,6 +472,14 @@ public final class NoopMetricRegistry extends MetricRegistry {
             // NOP
         }
 
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void update(long[] durations, int offset, int length, TimeUnit unit) {
+            // NOP
+        }
+
         /**
          * {@inheritDoc}
          */
@@ -432,6 +512,22 @@ public final class NoopMetricRegistry extends MetricRegistry {
             return CONTEXT;
         }
 
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public long startTick() {
+            return 0L;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public long stop(long startTick) {
+            return 0L;
+        }
+
         /**
          * {@inheritDoc}
          */
@@ -529,6 +625,14 @@ public final class NoopMetricRegistry extends MetricRegistry {
             // NOP
         }
 
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void update(long[] values, int offset, int length) {
+            // NOP
+        }
+
         /**
          * {@inheritDoc}
          */
@@ -18,6 +18,22 @@ public interface Reservoir {
      */
     void update(long value);
 
+    /**
+     * Adds a batch of new recorded values to the reservoir.
+     * <p>
+     * The default implementation adds the values one by one. Implementations override it to take
+     * their locks and read their clocks once per batch instead of once per value.
+     *
+     * @param values an array holding the new recorded values
+     * @param offset the index of the first value to add
+     * @param length the number of values to add
+     */
+    default void update(long[] values, int offset, int length) {
+        for (int i = offset; i < offset + length; i++) {
+            update(values[i]);
+        }
+    }
+
     /**
      * Returns a snapshot of the reservoir's values.
      *
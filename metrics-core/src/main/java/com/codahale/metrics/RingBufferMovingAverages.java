@@ -0,0 +1,144 @@
+package com.codahale.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A triple of simple moving average rates (one, five and fifteen minutes rates) as needed by {@link Meter}.
+ * <p>
+ * The rates are the same as the ones of {@link SlidingTimeWindowMovingAverages}: the number of
+ * events in each time window, counted in one-second buckets. Instead of one {@link LongAdder} per
+ * bucket, only the current second is counted in an adder. When a second is over, its count is
+ * moved into a ring buffer of primitive counts, and the running sum of every window is adjusted by
+ * the bucket entering and the bucket leaving it. Reading a rate is therefore one sum instead of a
+ * scan over the buckets, updates never allocate, and a whole instance needs about 7KB.
+ * <p>
+ * Moving the buckets is serialized, and readers retry while it is in progress, so they never see
+ * an event counted twice or not at all.
+ */
+public class RingBufferMovingAverages implements MovingAverages {
+
+    private static final long TICK_INTERVAL = TimeUnit.SECONDS.toNanos(1);
+
+    // package private for the benefit of the unit test
+    static final int NUMBER_OF_BUCKETS = (int) (TimeUnit.MINUTES.toNanos(15) / TICK_INTERVAL);
+
+    // the number of buckets in each window, including the current one
+    private static final int[] WINDOWS = {
+            (int) (TimeUnit.MINUTES.toNanos(1) / TICK_INTERVAL),
+            (int) (TimeUnit.MINUTES.toNanos(5) / TICK_INTERVAL),
+            NUMBER_OF_BUCKETS
+    };
+
+    private final LongAdder current = new LongAdder();
+    // the counts of the past seconds, guarded by this
+    private final long[] buckets = new long[NUMBER_OF_BUCKETS];
+    private int head;
+    // the sum of the past seconds of every window, without the current one
+    private final AtomicLongArray sums = new AtomicLongArray(WINDOWS.length);
+    // odd while the buckets are moved
+    private final AtomicLong version = new AtomicLong();
+
+    private final AtomicLong lastTick;
+    private final Clock clock;
+
+    /**
+     * Creates a new {@link RingBufferMovingAverages}.
+     */
+    public RingBufferMovingAverages() {
+        this(Clock.defaultClock());
+    }
+
+    /**
+     * Creates a new {@link RingBufferMovingAverages}.
+     *
+     * @param clock the clock to use for the meter ticks
+     */
+    public RingBufferMovingAverages(Clock clock) {
+        this.clock = clock;
+        this.lastTick = new AtomicLong(clock.getTick());
+    }
+
+    @Override
+    public void update(long n) {
+        current.add(n);
+    }
+
+    @Override
+    public void tickIfNecessary() {
+        final long oldTick = lastTick.get();
+        final long newTick = clock.getTick();
+        final long age = newTick - oldTick;
+        if (age >= TICK_INTERVAL) {
+            final long newLastTick = newTick - age % TICK_INTERVAL;
+            if (lastTick.compareAndSet(oldTick, newLastTick)) {
+                rotate(age / TICK_INTERVAL);
+            }
+        }
+    }
+
+    @Override
+    public double getM15Rate() {
+        return getRate(2);
+    }
+
+    @Override
+    public double getM5Rate() {
+        return getRate(1);
+    }
+
+    @Override
+    public double getM1Rate() {
+        return getRate(0);
+    }
+
+    private double getRate(int window) {
+        while (true) {
+            final long before = version.get();
+            final long sum = sums.get(window) + current.sum();
+            if ((before & 1) == 0 && version.get() == before) {
+                return sum;
+            }
+        }
+    }
+
+    private synchronized void rotate(long seconds) {
+        final long count = current.sum();
+        version.incrementAndGet();
+        try {
+            if (seconds >= NUMBER_OF_BUCKETS) {
+                // every bucket, including the one of the count, fell out of the windows
+                for (int i = 0; i < NUMBER_OF_BUCKETS; i++) {
+                    buckets[i] = 0;
+                }
+                for (int w = 0; w < WINDOWS.length; w++) {
+                    sums.set(w, 0);
+                }
+            } else {
+                push(count);
+                for (long i = 1; i < seconds; i++) {
+                    push(0);
+                }
+            }
+            // events marked since the count was read stay in the current second
+            current.add(-count);
+        } finally {
+            version.incrementAndGet();
+        }
+    }
+
+    private void push(long count) {
+        head = head + 1 == NUMBER_OF_BUCKETS ? 0 : head + 1;
+        for (int w = 0; w < WINDOWS.length; w++) {
+            // a window keeps WINDOWS[w] - 1 past seconds besides the current one
+            int leaving = head - (WINDOWS[w] - 1);
+            if (leaving < 0) {
+                leaving += NUMBER_OF_BUCKETS;
+            }
+            sums.set(w, sums.get(w) + count - buckets[leaving]);
+        }
+        buckets[head] = count;
+    }
+}
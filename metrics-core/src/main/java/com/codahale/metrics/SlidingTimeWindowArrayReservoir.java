@@ -69,19 +69,50 @@ public class SlidingTimeWindowArrayReservoir implements Reservoir {
         } while (!measurements.put(newTick, value));
     }
 
+    @Override
+    public void update(long[] values, int offset, int length) {
+        if (length == 0) {
+            return;
+        }
+        final long newCount = count.addAndGet(length);
+        if (newCount / TRIM_THRESHOLD != (newCount - length) / TRIM_THRESHOLD) {
+            trim();
+        }
+        long firstTick;
+        do {
+            long lastTick = this.lastTick.get();
+            firstTick = getTicks(length);
+            boolean longOverflow = firstTick < lastTick;
+            if (longOverflow) {
+                measurements.clear();
+            }
+        } while (!measurements.putAll(firstTick, values, offset, length));
+    }
+
     @Override
     public Snapshot getSnapshot() {
+        return new UniformSnapshot(values());
+    }
+
+    long[] values() {
         trim();
-        return new UniformSnapshot(measurements.values());
+        return measurements.values();
     }
 
     private long getTick() {
+        return getTicks(1);
+    }
+
+    /*
+     * Reserves the given number of consecutive ticks and returns the first one.
+     */
+    private long getTicks(int count) {
         for ( ;; ) {
             final long oldTick = lastTick.get();
             final long tick = (clock.getTick() - startTick) * COLLISION_BUFFER;
             // ensure the tick is strictly incrementing even if there are duplicate ticks
             final long newTick = tick - oldTick > 0L ? tick : oldTick + 1L;
-            if (lastTick.compareAndSet(oldTick, newTick)) {
+            if (lastTick.compareAndSet(oldTick, newTick + count - 1L)) {
                 return newTick;
             }
         }
@@ -63,6 +63,21 @@ public class SlidingTimeWindowReservoir implements Reservoir {
         measurements.put(getTick(), value);
     }
 
+    @Override
+    public void update(long[] values, int offset, int length) {
+        if (length == 0) {
+            return;
+        }
+        final long newCount = count.addAndGet(length);
+        if (newCount / TRIM_THRESHOLD != (newCount - length) / TRIM_THRESHOLD) {
+            trim();
+        }
+        final long firstTick = getTicks(length);
+        for (int i = 0; i < length; i++) {
+            measurements.put(firstTick + i, values[offset + i]);
+        }
+    }
+
     @Override
     public Snapshot getSnapshot() {
         trim();
@@ -70,12 +85,19 @@ public class SlidingTimeWindowReservoir implements Reservoir {
     }
 
     private long getTick() {
+        return getTicks(1);
+    }
+
+    /*
+     * Reserves the given number of consecutive ticks and returns the first one.
+     */
+    private long getTicks(int count) {
         for ( ;; ) {
             final long oldTick = lastTick.get();
             final long tick = (clock.getTick() - startTick) * COLLISION_BUFFER;
             // ensure the tick is strictly incrementing even if there are duplicate ticks
             final long newTick = tick - oldTick > 0 ? tick : oldTick + 1;
-            if (lastTick.compareAndSet(oldTick, newTick)) {
+            if (lastTick.compareAndSet(oldTick, newTick + count - 1)) {
                 return newTick;
             }
         }
@@ -0,0 +1,112 @@
+package com.codahale.metrics;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A {@link Reservoir} implementation backed by a sliding window that stores only the measurements made
+ * in the last {@code N} seconds (or other time unit), like {@link SlidingTimeWindowArrayReservoir}.
+ * <p>
+ * The measurements are spread over several stripes, each of them a
+ * {@link SlidingTimeWindowArrayReservoir} of its own, and every thread always records into the
+ * same stripe. Threads recording at the same time therefore rarely share a lock or a tick counter,
+ * so updates keep scaling with the number of threads. Snapshots trim every stripe and merge their
+ * measurements.
+ */
+public class StripedSlidingTimeWindowArrayReservoir implements Reservoir {
+    private final SlidingTimeWindowArrayReservoir[] stripes;
+    private final int mask;
+
+    /**
+     * Creates a new {@link StripedSlidingTimeWindowArrayReservoir} with the given window of time,
+     * with one stripe per available processor.
+     *
+     * @param window     the window of time
+     * @param windowUnit the unit of {@code window}
+     */
+    public StripedSlidingTimeWindowArrayReservoir(long window, TimeUnit windowUnit) {
+        this(window, windowUnit, Clock.defaultClock());
+    }
+
+    /**
+     * Creates a new {@link StripedSlidingTimeWindowArrayReservoir} with the given clock and window
+     * of time, with one stripe per available processor.
+     *
+     * @param window     the window of time
+     * @param windowUnit the unit of {@code window}
+     * @param clock      the {@link Clock} to use
+     */
+    public StripedSlidingTimeWindowArrayReservoir(long window, TimeUnit windowUnit, Clock clock) {
+        this(window, windowUnit, clock, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Creates a new {@link StripedSlidingTimeWindowArrayReservoir} with the given clock, window of
+     * time and number of stripes.
+     *
+     * @param window     the window of time
+     * @param windowUnit the unit of {@code window}
+     * @param clock      the {@link Clock} to use
+     * @param stripes    the number of stripes, rounded up to a power of two
+     */
+    public StripedSlidingTimeWindowArrayReservoir(long window, TimeUnit windowUnit, Clock clock, int stripes) {
+        if (stripes < 1) {
+            throw new IllegalArgumentException("stripes must be positive: " + stripes);
+        }
+        final int length = stripes == 1 ? 1 : Integer.highestOneBit(stripes - 1) << 1;
+        this.stripes = new SlidingTimeWindowArrayReservoir[length];
+        for (int i = 0; i < length; i++) {
+            this.stripes[i] = new SlidingTimeWindowArrayReservoir(window, windowUnit, clock);
+        }
+        this.mask = length - 1;
+    }
+
+    @Override
+    public int size() {
+        int size = 0;
+        for (SlidingTimeWindowArrayReservoir stripe : stripes) {
+            size += stripe.size();
+        }
+        return size;
+    }
+
+    @Override
+    public void update(long value) {
+        stripes[(int) Thread.currentThread().getId() & mask].update(value);
+    }
+
+    @Override
+    public void update(long[] values, int offset, int length) {
+        stripes[(int) Thread.currentThread().getId() & mask].update(values, offset, length);
+    }
+
+    /*
+     * Records into the given stripe rather than the one of the current thread. Visible for testing.
+     */
+    void update(int stripe, long value) {
+        stripes[stripe & mask].update(value);
+    }
+
+    @Override
+    public Snapshot getSnapshot() {
+        final long[][] values = new long[stripes.length][];
+        int size = 0;
+        for (int i = 0; i < stripes.length; i++) {
+            values[i] = stripes[i].values();
+            size += values[i].length;
+        }
+
+        final long[] merged = new long[size];
+        int offset = 0;
+        for (long[] stripeValues : values) {
+            System.arraycopy(stripeValues, 0, merged, offset, stripeValues.length);
+            offset += stripeValues.length;
+        }
+        return new UniformSnapshot(merged);
+    }
+
+    void trim() {
+        for (SlidingTimeWindowArrayReservoir stripe : stripes) {
+            stripe.trim();
+        }
+    }
+}
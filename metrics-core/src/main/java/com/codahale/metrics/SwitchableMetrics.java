@@ -0,0 +1,181 @@
+package com.codahale.metrics;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * The metrics created by a switchable {@link MetricRegistry}, which drop their updates while they
+ * are disabled. Each of them keeps its own flag, so that an update costs a single volatile read
+ * more than it does for a plain metric, and the registry flips the flags of every metric under a
+ * prefix when it is enabled or disabled. Each of them also knows the registry which created it, so
+ * that registering it in another registry doesn't let that one switch it.
+ */
+final class SwitchableMetrics {
+    private SwitchableMetrics() {
+    }
+
+    interface Switchable {
+        void setEnabled(boolean enabled);
+
+        boolean isOwnedBy(MetricRegistry registry);
+    }
+
+    static final class SwitchableCounter extends Counter implements Switchable {
+        private final MetricRegistry owner;
+        private volatile boolean enabled = true;
+
+        SwitchableCounter(MetricRegistry owner) {
+            this.owner = owner;
+        }
+
+        @Override
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        @Override
+        public boolean isOwnedBy(MetricRegistry registry) {
+            return owner == registry;
+        }
+
+        @Override
+        public void inc(long n) {
+            if (enabled) {
+                super.inc(n);
+            }
+        }
+
+        @Override
+        public void dec(long n) {
+            if (enabled) {
+                super.dec(n);
+            }
+        }
+    }
+
+    static final class SwitchableMeter extends Meter implements Switchable {
+        private final MetricRegistry owner;
+        private volatile boolean enabled = true;
+
+        SwitchableMeter(MetricRegistry owner) {
+            this.owner = owner;
+        }
+
+        @Override
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        @Override
+        public boolean isOwnedBy(MetricRegistry registry) {
+            return owner == registry;
+        }
+
+        @Override
+        public void mark(long n) {
+            if (enabled) {
+                super.mark(n);
+            }
+        }
+    }
+
+    static final class SwitchableHistogram extends Histogram implements Switchable {
+        private final MetricRegistry owner;
+        private volatile boolean enabled = true;
+
+        SwitchableHistogram(MetricRegistry owner, Reservoir reservoir) {
+            super(reservoir);
+            this.owner = owner;
+        }
+
+        @Override
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        @Override
+        public boolean isOwnedBy(MetricRegistry registry) {
+            return owner == registry;
+        }
+
+        @Override
+        public void update(long value) {
+            if (enabled) {
+                super.update(value);
+            }
+        }
+
+        @Override
+        public void update(long[] values, int offset, int length) {
+            if (enabled) {
+                super.update(values, offset, length);
+            }
+        }
+    }
+
+    static final class SwitchableTimer extends Timer implements Switchable {
+        private final MetricRegistry owner;
+        private volatile boolean enabled = true;
+
+        SwitchableTimer(MetricRegistry owner, Reservoir reservoir) {
+            super(reservoir);
+            this.owner = owner;
+        }
+
+        @Override
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        @Override
+        public boolean isOwnedBy(MetricRegistry registry) {
+            return owner == registry;
+        }
+
+        @Override
+        public void update(long duration, TimeUnit unit) {
+            if (enabled) {
+                super.update(duration, unit);
+            }
+        }
+
+        @Override
+        public void update(Duration duration) {
+            if (enabled) {
+                super.update(duration);
+            }
+        }
+
+        @Override
+        public void update(long[] durations, int offset, int length, TimeUnit unit) {
+            if (enabled) {
+                super.update(durations, offset, length, unit);
+            }
+        }
+
+        // the timing methods which wrap the event also skip reading the clock while the timer is
+        // disabled; time(), startTick() and stop(long) still read it, since the event may end after
+        // the timer is enabled again, and must then be recorded with its actual duration
+
+        @Override
+        public <T> T time(Callable<T> event) throws Exception {
+            return enabled ? super.time(event) : event.call();
+        }
+
+        @Override
+        public <T> T timeSupplier(Supplier<T> event) {
+            return enabled ? super.timeSupplier(event) : event.get();
+        }
+
+        @Override
+        public void time(Runnable event) {
+            if (enabled) {
+                super.time(event);
+            } else {
+                event.run();
+            }
+        }
+    }
+}
@@ -78,6 +78,29 @@ public class Timer implements Metered, Sampling {
         this(new Meter(clock), new Histogram(reservoir), clock);
     }
 
+    /**
+     * Creates a new {@link Timer} that uses the given {@link Reservoir}, and whose meter is advanced
+     * by the given {@link MeterTicker}, so that recording a duration doesn't tick the meter.
+     *
+     * @param reservoir the {@link Reservoir} implementation the timer should use
+     * @param ticker    the {@link MeterTicker} advancing the moving averages of the timer
+     */
+    public Timer(Reservoir reservoir, MeterTicker ticker) {
+        this(reservoir, Clock.defaultClock(), ticker);
+    }
+
+    /**
+     * Creates a new {@link Timer} that uses the given {@link Reservoir} and {@link Clock}, and whose
+     * meter is advanced by the given {@link MeterTicker}.
+     *
+     * @param reservoir the {@link Reservoir} implementation the timer should use
+     * @param clock     the {@link Clock} implementation the timer should use
+     * @param ticker    the {@link MeterTicker} advancing the moving averages of the timer
+     */
+    public Timer(Reservoir reservoir, Clock clock, MeterTicker ticker) {
+        this(new Meter(new ExponentialMovingAverages(clock), clock, ticker), new Histogram(reservoir), clock);
+    }
+
     public Timer(Meter meter, Histogram histogram, Clock clock) {
         this.meter = meter;
         this.histogram = histogram;
@@ -103,6 +126,38 @@ public class Timer implements Metered, Sampling {
         update(duration.toNanos());
     }
 
+    /**
+     * Adds a batch of recorded durations. Negative durations are ignored.
+     *
+     * @param durations an array holding the lengths of the durations
+     * @param offset    the index of the first duration to add
+     * @param length    the number of durations to add
+     * @param unit      the scale unit of {@code durations}
+     * @throws IndexOutOfBoundsException if the batch is not within {@code durations}
+     */
+    public void update(long[] durations, int offset, int length, TimeUnit unit) {
+        Histogram.checkBounds(durations, offset, length);
+        if (unit == TimeUnit.NANOSECONDS && allNonNegative(durations, offset, length)) {
+            if (length > 0) {
+                histogram.update(durations, offset, length);
+                meter.mark(length);
+            }
+            return;
+        }
+        final long[] nanos = new long[length];
+        int count = 0;
+        for (int i = offset; i < offset + length; i++) {
+            final long duration = unit.toNanos(durations[i]);
+            if (duration >= 0) {
+                nanos[count++] = duration;
+            }
+        }
+        if (count > 0) {
+            histogram.update(nanos, 0, count);
+            meter.mark(count);
+        }
+    }
+
     /**
      * Times and records the duration of event.
      *
@@ -164,6 +219,30 @@ public class Timer implements Metered, Sampling {
         return new Context(this, clock);
     }
 
+    /**
+     * Returns the current tick of the timer's clock, to be passed to {@link #stop(long)} once the
+     * event is over. Unlike {@link #time()}, this does not allocate anything.
+     *
+     * @return the start tick of the event
+     * @see #stop(long)
+     */
+    public long startTick() {
+        return clock.getTick();
+    }
+
+    /**
+     * Updates the timer with the difference between the current tick and the given start tick.
+     *
+     * @param startTick the start tick of the event, as returned by {@link #startTick()}
+     * @return the elapsed time in nanoseconds
+     * @see #startTick()
+     */
+    public long stop(long startTick) {
+        final long elapsed = clock.getTick() - startTick;
+        update(elapsed, TimeUnit.NANOSECONDS);
+        return elapsed;
+    }
+
     @Override
     public long getCount() {
         return histogram.getCount();
@@ -194,6 +273,15 @@ public class Timer implements Metered, Sampling {
         return histogram.getSnapshot();
     }
 
+    private static boolean allNonNegative(long[] durations, int offset, int length) {
+        for (int i = offset; i < offset + length; i++) {
+            if (durations[i] < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     private void update(long duration) {
         if (duration >= 0) {
             histogram.update(duration);
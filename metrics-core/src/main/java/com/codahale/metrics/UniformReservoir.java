@@ -3,17 +3,26 @@ package com.codahale.metrics;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * A random sampling reservoir of a stream of {@code long}s. Uses Vitter's Algorithm R to produce a
  * statistically representative sample.
+ * <p>
+ * Optionally, Li's Algorithm L is used instead: once the reservoir is full, it computes how many
+ * values to skip until the next one is kept, so most updates only increment the count and compare
+ * it with the next accepted position, instead of drawing a random number for every value.
  *
  * @see <a href="http://www.cs.umd.edu/~samir/498/vitter.pdf">Random Sampling with a Reservoir</a>
+ * @see <a href="https://doi.org/10.1145/198429.198435">Li. Reservoir-Sampling Algorithms of Time
+ * Complexity O(n(1 + log(N/n))). ACM TOMS 20(4) (1994)</a>
  */
 public class UniformReservoir implements Reservoir {
     private static final int DEFAULT_SIZE = 1028;
     private final AtomicLong count = new AtomicLong();
     private final AtomicLongArray values;
+    // null unless the reservoir skips ahead
+    private final AtomicReference<Skip> skip;
 
     /**
      * Creates a new {@link UniformReservoir} of 1028 elements, which offers a 99.9% confidence level
@@ -29,7 +38,19 @@ public class UniformReservoir implements Reservoir {
      * @param size the number of samples to keep in the sampling reservoir
      */
     public UniformReservoir(int size) {
+        this(size, false);
+    }
+
+    /**
+     * Creates a new {@link UniformReservoir}.
+     *
+     * @param size      the number of samples to keep in the sampling reservoir
+     * @param skipAhead whether to use Algorithm L, which skips over the values that won't be kept
+     *                  instead of drawing a random number for each of them
+     */
+    public UniformReservoir(int size, boolean skipAhead) {
         this.values = new AtomicLongArray(size);
+        this.skip = skipAhead ? new AtomicReference<>(Skip.first(size)) : null;
         for (int i = 0; i < values.length(); i++) {
             values.set(i, 0);
         }
@@ -47,9 +68,26 @@ public class UniformReservoir implements Reservoir {
 
     @Override
     public void update(long value) {
-        final long c = count.incrementAndGet();
+        update(count.incrementAndGet(), value);
+    }
+
+    @Override
+    public void update(long[] values, int offset, int length) {
+        final long first = count.getAndAdd(length);
+        for (int i = 0; i < length; i++) {
+            update(first + i + 1, values[offset + i]);
+        }
+    }
+
+    private void update(long c, long value) {
         if (c <= values.length()) {
             values.set((int) c - 1, value);
+        } else if (skip != null) {
+            final Skip current = skip.get();
+            // only the thread which advances the skip keeps its value
+            if (c >= current.next && skip.compareAndSet(current, current.advance(c, values.length()))) {
+                values.set(ThreadLocalRandom.current().nextInt(values.length()), value);
+            }
         } else {
             final long r = ThreadLocalRandom.current().nextLong(c);
             if (r < values.length()) {
@@ -67,4 +105,35 @@ public class UniformReservoir implements Reservoir {
         }
         return new UniformSnapshot(copy);
     }
+
+    /**
+     * The position of the next value to keep, and the W variable of Algorithm L.
+     */
+    private static class Skip {
+        private final long next;
+        private final double w;
+
+        private Skip(long next, double w) {
+            this.next = next;
+            this.w = w;
+        }
+
+        private static Skip first(int size) {
+            return next(size, Math.exp(Math.log(random()) / size));
+        }
+
+        private Skip advance(long count, int size) {
+            return next(count, w * Math.exp(Math.log(random()) / size));
+        }
+
+        private static Skip next(long count, double w) {
+            final long gap = (long) Math.floor(Math.log(random()) / Math.log(1 - w));
+            return new Skip(gap < Long.MAX_VALUE - count ? count + gap + 1 : Long.MAX_VALUE, w);
+        }
+
+        private static double random() {
+            // in (0..1], so that its logarithm is finite
+            return 1 - ThreadLocalRandom.current().nextDouble();
+        }
+    }
 }
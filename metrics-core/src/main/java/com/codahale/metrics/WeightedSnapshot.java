@@ -5,7 +5,6 @@ import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
 import java.util.Arrays;
 import java.util.Collection;
-import java.util.Comparator;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
 
@@ -27,6 +26,8 @@ public class WeightedSnapshot extends Snapshot {
         }
     }
 
+    private static final int INSERTION_SORT_THRESHOLD = 16;
+
     private final long[] values;
     private final double[] normWeights;
     private final double[] quantiles;
@@ -37,29 +38,122 @@ public class WeightedSnapshot extends Snapshot {
      * @param values an unordered set of values in the reservoir
      */
     public WeightedSnapshot(Collection<WeightedSample> values) {
-        final WeightedSample[] copy = values.toArray(new WeightedSample[]{});
+        this(values.toArray(new WeightedSample[]{}));
+    }
+
+    private WeightedSnapshot(WeightedSample[] samples) {
+        this(valuesOf(samples), weightsOf(samples));
+    }
 
-        Arrays.sort(copy, Comparator.comparingLong(w -> w.value));
+    /**
+     * Create a new {@link Snapshot} with the given values and weights, where {@code weights[i]} is
+     * the weight of {@code values[i]}. Both arrays are sorted in place by value and are owned by
+     * the snapshot afterwards, so they must not be modified by the caller.
+     *
+     * @param values  an unordered set of values in the reservoir
+     * @param weights the weights of the values
+     * @throws IllegalArgumentException if the arrays have different lengths
+     */
+    public WeightedSnapshot(long[] values, double[] weights) {
+        if (values.length != weights.length) {
+            throw new IllegalArgumentException("Mismatched lengths: " + values.length + " vs " + weights.length);
+        }
 
-        this.values = new long[copy.length];
-        this.normWeights = new double[copy.length];
-        this.quantiles = new double[copy.length];
+        sort(values, weights, 0, values.length);
+
+        this.values = values;
+        this.normWeights = weights;
+        this.quantiles = new double[values.length];
 
         double sumWeight = 0;
-        for (WeightedSample sample : copy) {
-            sumWeight += sample.weight;
+        for (double weight : weights) {
+            sumWeight += weight;
         }
 
-        for (int i = 0; i < copy.length; i++) {
-            this.values[i] = copy[i].value;
-            this.normWeights[i] = sumWeight != 0 ? copy[i].weight / sumWeight : 0;
+        for (int i = 0; i < weights.length; i++) {
+            this.normWeights[i] = sumWeight != 0 ? weights[i] / sumWeight : 0;
         }
 
-        for (int i = 1; i < copy.length; i++) {
+        for (int i = 1; i < values.length; i++) {
             this.quantiles[i] = this.quantiles[i - 1] + this.normWeights[i - 1];
         }
     }
 
+    private static long[] valuesOf(WeightedSample[] samples) {
+        final long[] values = new long[samples.length];
+        for (int i = 0; i < samples.length; i++) {
+            values[i] = samples[i].value;
+        }
+        return values;
+    }
+
+    private static double[] weightsOf(WeightedSample[] samples) {
+        final double[] weights = new double[samples.length];
+        for (int i = 0; i < samples.length; i++) {
+            weights[i] = samples[i].weight;
+        }
+        return weights;
+    }
+
+    /*
+     * Sorts values[from..to) and moves every weight along with its value. A three-way quicksort
+     * keeps runs of equal values, which are common in latency samples, out of the recursion, and
+     * recursing only into the smaller partition bounds the stack depth.
+     */
+    private static void sort(long[] values, double[] weights, int from, int to) {
+        while (to - from > INSERTION_SORT_THRESHOLD) {
+            final long pivot = medianOfThree(values[from], values[(from + to) >>> 1], values[to - 1]);
+            int lt = from;
+            int gt = to - 1;
+            int i = from;
+            while (i <= gt) {
+                if (values[i] < pivot) {
+                    swap(values, weights, lt++, i++);
+                } else if (values[i] > pivot) {
+                    swap(values, weights, i, gt--);
+                } else {
+                    i++;
+                }
+            }
+            if (lt - from < to - gt) {
+                sort(values, weights, from, lt);
+                from = gt + 1;
+            } else {
+                sort(values, weights, gt + 1, to);
+                to = lt;
+            }
+        }
+
+        for (int i = from + 1; i < to; i++) {
+            final long value = values[i];
+            final double weight = weights[i];
+            int j = i - 1;
+            while (j >= from && values[j] > value) {
+                values[j + 1] = values[j];
+                weights[j + 1] = weights[j];
+                j--;
+            }
+            values[j + 1] = value;
+            weights[j + 1] = weight;
+        }
+    }
+
+    private static long medianOfThree(long a, long b, long c) {
+        if (a < b) {
+            return b < c ? b : Math.max(a, c);
+        }
+        return a < c ? a : Math.max(b, c);
+    }
+
+    private static void swap(long[] values, double[] weights, int i, int j) {
+        final long value = values[i];
+        values[i] = values[j];
+        values[j] = value;
+        final double weight = weights[i];
+        weights[i] = weights[j];
+        weights[j] = weight;
+    }
+
     /**
      * Returns the value at the given quantile.
      *
@@ -78,7 +172,7 @@ public class WeightedSnapshot extends Snapshot {
 
         int posx = Arrays.binarySearch(quantiles, quantile);
         if (posx < 0)
-            posx = ((-posx) - 1) - 1;
+            posx = -posx - 1 - 1;
 
         if (posx < 1) {
             return values[0];
@@ -0,0 +1,116 @@
+package com.codahale.metrics;
+
+import org.junit.After;
+import org.junit.Test;
+import org.mockito.InOrder;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+public class AsyncMetricRegistryListenerTest {
+    private final MetricRegistryListener listener = mock(MetricRegistryListener.class);
+    private final AsyncMetricRegistryListener asyncListener = new AsyncMetricRegistryListener(listener);
+    private final MetricRegistry registry = new MetricRegistry();
+
+    @After
+    public void tearDown() {
+        asyncListener.close();
+    }
+
+    @Test
+    public void deliversEventsInOrder() {
+        registry.addListener(asyncListener);
+        final Counter counter = registry.counter("counter");
+        registry.timer("timer");
+        registry.remove("timer");
+        registry.register("timer", counter);
+
+        asyncListener.close();
+
+        final InOrder inOrder = inOrder(listener);
+        inOrder.verify(listener).onCounterAdded("counter", counter);
+        inOrder.verify(listener).onCounterAdded("timer", counter);
+        verify(listener, never()).onCounterRemoved(any());
+    }
+
+    @Test
+    public void deliversEventsOnADedicatedThread() throws Exception {
+        final Thread[] deliveringThread = new Thread[1];
+        final CountDownLatch delivered = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            deliveringThread[0] = Thread.currentThread();
+            delivered.countDown();
+            return null;
+        }).when(listener).onMeterAdded(any(), any());
+
+        registry.addListener(asyncListener);
+        registry.meter("meter");
+
+        assertThat(delivered.await(5, TimeUnit.SECONDS))
+                .isTrue();
+        assertThat(deliveringThread[0])
+                .isNotSameAs(Thread.currentThread());
+    }
+
+    @Test
+    public void coalescesAdditionsAndRemovalsWithinABatch() throws Exception {
+        final CountDownLatch blocked = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            blocked.countDown();
+            release.await();
+            return null;
+        }).when(listener).onGaugeAdded(any(), any());
+
+        registry.addListener(asyncListener);
+        registry.gauge("gauge", () -> () -> 1);
+        assertThat(blocked.await(5, TimeUnit.SECONDS))
+                .isTrue();
+
+        // queued while the listener is busy, so delivered in the same batch
+        registry.counter("removed");
+        registry.remove("removed");
+        final Counter kept = registry.counter("kept");
+        registry.remove("gauge");
+        release.countDown();
+        asyncListener.close();
+
+        final InOrder inOrder = inOrder(listener);
+        inOrder.verify(listener).onCounterAdded("kept", kept);
+        inOrder.verify(listener).onGaugeRemoved("gauge");
+        verify(listener, never()).onCounterAdded(eq("removed"), any());
+        verify(listener, never()).onCounterRemoved("removed");
+    }
+
+    @Test
+    public void keepsDeliveringAfterAListenerThrows() {
+        doAnswer(invocation -> {
+            throw new IllegalStateException("boom");
+        }).when(listener).onHistogramAdded(any(), any());
+
+        registry.addListener(asyncListener);
+        registry.histogram("histogram");
+        final Meter meter = registry.meter("meter");
+        asyncListener.close();
+
+        verify(listener).onMeterAdded("meter", meter);
+    }
+
+    @Test
+    public void dropsEventsAfterClosing() {
+        asyncListener.close();
+        registry.addListener(asyncListener);
+        registry.counter("counter");
+
+        verify(listener, never()).onCounterAdded(any(), any());
+    }
+}
@@ -0,0 +1,95 @@
+package com.codahale.metrics;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class CachedClockTest {
+    private final ManualClock manualClock = new ManualClock();
+    private final CachedClock clock = new CachedClock(manualClock, 1, TimeUnit.HOURS);
+
+    @After
+    public void tearDown() {
+        clock.close();
+    }
+
+    @Test
+    public void keepsTheTickAndTimeUntilRefreshed() {
+        manualClock.addSeconds(10);
+
+        assertThat(clock.getTick())
+                .isZero();
+        assertThat(clock.getTime())
+                .isZero();
+
+        clock.refresh();
+
+        assertThat(clock.getTick())
+                .isEqualTo(TimeUnit.SECONDS.toNanos(10));
+        assertThat(clock.getTime())
+                .isEqualTo(TimeUnit.SECONDS.toMillis(10));
+    }
+
+    @Test
+    public void refreshesInTheBackground() throws Exception {
+        try (CachedClock fastClock = new CachedClock(manualClock, 1, TimeUnit.MILLISECONDS)) {
+            manualClock.addSeconds(10);
+
+            final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (fastClock.getTick() == 0 && System.nanoTime() < deadline) {
+                Thread.sleep(1);
+            }
+
+            assertThat(fastClock.getTick())
+                    .isEqualTo(TimeUnit.SECONDS.toNanos(10));
+        }
+    }
+
+    @Test
+    public void keepsRefreshingAfterTheClockThrows() throws Exception {
+        final AtomicBoolean failed = new AtomicBoolean();
+        final Clock failingOnce = new Clock() {
+            private final AtomicInteger reads = new AtomicInteger();
+
+            @Override
+            public long getTick() {
+                // the first read is the one of the constructor, the second one is in the background
+                if (reads.incrementAndGet() == 2) {
+                    failed.set(true);
+                    throw new IllegalStateException("boom");
+                }
+                return manualClock.getTick();
+            }
+        };
+        try (CachedClock fastClock = new CachedClock(failingOnce, 1, TimeUnit.MILLISECONDS)) {
+            final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (!failed.get() && System.nanoTime() < deadline) {
+                Thread.sleep(1);
+            }
+            manualClock.addSeconds(10);
+            while (fastClock.getTick() == 0 && System.nanoTime() < deadline) {
+                Thread.sleep(1);
+            }
+
+            assertThat(fastClock.getTick())
+                    .isEqualTo(TimeUnit.SECONDS.toNanos(10));
+        }
+    }
+
+    @Test
+    public void drivesAMeter() {
+        final Meter meter = new Meter(clock);
+
+        meter.mark(10);
+        manualClock.addSeconds(10);
+        clock.refresh();
+
+        assertThat(meter.getMeanRate())
+                .isEqualTo(1.0);
+    }
+}
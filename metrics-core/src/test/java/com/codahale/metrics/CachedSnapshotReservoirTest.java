@@ -0,0 +1,114 @@
+package com.codahale.metrics;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class CachedSnapshotReservoirTest {
+    private final ManualClock clock = new ManualClock();
+    private final UniformReservoir delegate = new UniformReservoir();
+    private final CachedSnapshotReservoir reservoir =
+            new CachedSnapshotReservoir(delegate, clock, 1, TimeUnit.SECONDS);
+
+    @Test
+    public void cachesTheSnapshotForTheGivenPeriod() {
+        reservoir.update(1);
+        final Snapshot snapshot = reservoir.getSnapshot();
+
+        reservoir.update(2);
+        clock.addMillis(999);
+
+        assertThat(reservoir.getSnapshot())
+                .isSameAs(snapshot);
+        assertThat(snapshot.getValues())
+                .containsOnly(1);
+    }
+
+    @Test
+    public void reloadsTheSnapshotAfterTheGivenPeriod() {
+        reservoir.update(1);
+        final Snapshot snapshot = reservoir.getSnapshot();
+
+        reservoir.update(2);
+        clock.addSeconds(1);
+
+        assertThat(reservoir.getSnapshot())
+                .isNotSameAs(snapshot);
+        assertThat(reservoir.getSnapshot().getValues())
+                .containsOnly(1, 2);
+    }
+
+    @Test
+    public void passesUpdatesAndSizeThrough() {
+        reservoir.update(1);
+        reservoir.update(2);
+
+        assertThat(reservoir.size())
+                .isEqualTo(2);
+        assertThat(delegate.size())
+                .isEqualTo(2);
+    }
+
+    @Test
+    public void concurrentReadersShareOneSnapshot() throws Exception {
+        final Reservoir slow = mock(Reservoir.class);
+        final Snapshot snapshot = mock(Snapshot.class);
+        final CountDownLatch building = new CountDownLatch(1);
+        final CountDownLatch built = new CountDownLatch(1);
+        when(slow.getSnapshot()).thenAnswer(invocation -> {
+            building.countDown();
+            built.await();
+            return snapshot;
+        });
+        final CachedSnapshotReservoir cachedSlow = new CachedSnapshotReservoir(slow, clock, 1, TimeUnit.SECONDS);
+
+        final int readers = 4;
+        final CyclicBarrier start = new CyclicBarrier(readers);
+        final Set<Thread> threads = ConcurrentHashMap.newKeySet();
+        final ExecutorService executor = Executors.newFixedThreadPool(readers);
+        try {
+            final List<Future<Snapshot>> futures = new ArrayList<>();
+            for (int i = 0; i < readers; i++) {
+                futures.add(executor.submit(() -> {
+                    threads.add(Thread.currentThread());
+                    start.await();
+                    return cachedSlow.getSnapshot();
+                }));
+            }
+
+            // one reader builds the snapshot while all the others wait for it
+            assertThat(building.await(5, TimeUnit.SECONDS))
+                    .isTrue();
+            final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (threads.stream().filter(t -> t.getState() == Thread.State.BLOCKED).count() < readers - 1) {
+                assertThat(System.nanoTime())
+                        .isLessThan(deadline);
+                Thread.sleep(1);
+            }
+            built.countDown();
+
+            for (Future<Snapshot> future : futures) {
+                assertThat(future.get())
+                        .isSameAs(snapshot);
+            }
+            verify(slow, times(1)).getSnapshot();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.codahale.metrics;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.offset;
+import static org.assertj.core.api.Assertions.within;
+
+public class DDSketchReservoirTest {
+    private final DDSketchReservoir reservoir = new DDSketchReservoir();
+
+    @Test
+    public void quantilesAreWithinTheRelativeAccuracy() {
+        for (long i = 1; i <= 100_000; i++) {
+            reservoir.update(i);
+        }
+
+        final DDSketchSnapshot snapshot = reservoir.getSnapshot();
+
+        assertThat(reservoir.size())
+                .isEqualTo(100_000);
+        assertThat(snapshot.getCount())
+                .isEqualTo(100_000);
+        assertThat(snapshot.getMedian())
+                .isCloseTo(50_000, within(500.0));
+        assertThat(snapshot.get99thPercentile())
+                .isCloseTo(99_000, within(990.0));
+        assertThat(snapshot.get999thPercentile())
+                .isCloseTo(99_900, within(999.0));
+        assertThat(snapshot.getMin())
+                .isEqualTo(1);
+        assertThat(snapshot.getMax())
+                .isCloseTo(100_000L, within(1_000L));
+        assertThat(snapshot.getMean())
+                .isCloseTo(50_000, within(500.0));
+    }
+
+    @Test
+    public void countsNonPositiveValuesAsZero() {
+        reservoir.update(-5);
+        reservoir.update(0);
+        reservoir.update(1000);
+
+        final DDSketchSnapshot snapshot = reservoir.getSnapshot();
+
+        assertThat(snapshot.getMin())
+                .isEqualTo(0);
+        assertThat(snapshot.getMedian())
+                .isEqualTo(0, offset(0.1));
+        assertThat(snapshot.getMax())
+                .isCloseTo(1000L, within(10L));
+        assertThat(snapshot.getValues())
+                .hasSize(2)
+                .startsWith(0);
+    }
+
+    @Test
+    public void mergedSnapshotsMatchASingleSketch() {
+        final DDSketchReservoir first = new DDSketchReservoir();
+        final DDSketchReservoir second = new DDSketchReservoir();
+        for (long i = 1; i <= 10_000; i++) {
+            reservoir.update(i);
+            (i % 3 == 0 ? first : second).update(i * 7 % 10_000 + 1);
+        }
+
+        final DDSketchSnapshot merged = new DDSketchSnapshot(0.01)
+                .merge(first.getSnapshot())
+                .merge(second.getSnapshot());
+        final DDSketchSnapshot single = reservoir.getSnapshot();
+
+        assertThat(merged.getCount())
+                .isEqualTo(10_000);
+        for (double quantile : new double[]{0.0, 0.5, 0.75, 0.95, 0.99, 0.999, 1.0}) {
+            assertThat(merged.getValue(quantile))
+                    .isEqualTo(single.getValue(quantile));
+        }
+        assertThat(merged.getValues())
+                .isEqualTo(single.getValues());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void disallowsMergingDifferentAccuracies() {
+        new DDSketchSnapshot(0.01).merge(new DDSketchSnapshot(0.02));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void disallowsAnAccuracyOutsideOfZeroToOne() {
+        new DDSketchReservoir(1.5);
+    }
+
+    @Test
+    public void snapshotsSurviveSerialization() throws Exception {
+        for (long i = 1; i <= 1000; i++) {
+            reservoir.update(i);
+        }
+        final DDSketchSnapshot snapshot = reservoir.getSnapshot();
+
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(snapshot);
+        }
+        final DDSketchSnapshot copy;
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            copy = (DDSketchSnapshot) in.readObject();
+        }
+
+        assertThat(copy.getCount())
+                .isEqualTo(1000);
+        assertThat(copy.getRelativeAccuracy())
+                .isEqualTo(0.01);
+        assertThat(copy.get95thPercentile())
+                .isEqualTo(snapshot.get95thPercentile());
+        assertThat(copy.getValues())
+                .isEqualTo(snapshot.getValues());
+    }
+
+    @Test
+    public void anEmptyReservoirHasAnEmptySnapshot() {
+        final Snapshot snapshot = reservoir.getSnapshot();
+
+        assertThat(snapshot.size())
+                .isZero();
+        assertThat(snapshot.getValues())
+                .isEmpty();
+        assertThat(snapshot.getMedian())
+                .isZero();
+        assertThat(snapshot.getMax())
+                .isZero();
+        assertThat(snapshot.getMean())
+                .isZero();
+    }
+}
@@ -0,0 +1,90 @@
+package com.codahale.metrics;
+
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.offset;
+
+public class ExponentialMovingAveragesTest {
+    private final ManualClock clock = new ManualClock();
+
+    @Test
+    public void matchesTheRatesOfSeparateEWMAs() {
+        final ExponentialMovingAverages movingAverages = new ExponentialMovingAverages(clock);
+        final EWMA m1 = EWMA.oneMinuteEWMA();
+        final EWMA m5 = EWMA.fiveMinuteEWMA();
+        final EWMA m15 = EWMA.fifteenMinuteEWMA();
+
+        for (int i = 0; i < 100; i++) {
+            final long n = i % 7;
+            movingAverages.update(n);
+            m1.update(n);
+            m5.update(n);
+            m15.update(n);
+
+            clock.addSeconds(5);
+            clock.addNanos(1);
+            movingAverages.tickIfNecessary();
+            m1.tick();
+            m5.tick();
+            m15.tick();
+
+            assertThat(movingAverages.getM1Rate())
+                    .isEqualTo(m1.getRate(TimeUnit.SECONDS), offset(1e-9));
+            assertThat(movingAverages.getM5Rate())
+                    .isEqualTo(m5.getRate(TimeUnit.SECONDS), offset(1e-9));
+            assertThat(movingAverages.getM15Rate())
+                    .isEqualTo(m15.getRate(TimeUnit.SECONDS), offset(1e-9));
+        }
+    }
+
+    @Test
+    public void keepsTheRatesOfExtraWindows() {
+        final ExponentialMovingAverages movingAverages =
+                new ExponentialMovingAverages(clock, Duration.ofSeconds(10));
+        final EWMA m10s = new EWMA(1 - Math.exp(-0.5), 5, TimeUnit.SECONDS);
+
+        movingAverages.update(10);
+        m10s.update(10);
+        clock.addSeconds(6);
+        movingAverages.tickIfNecessary();
+        m10s.tick();
+
+        assertThat(movingAverages.getRate(Duration.ofSeconds(10)))
+                .isEqualTo(2.0, offset(1e-9));
+
+        clock.addSeconds(5);
+        movingAverages.tickIfNecessary();
+        m10s.tick();
+
+        assertThat(movingAverages.getRate(Duration.ofSeconds(10)))
+                .isEqualTo(m10s.getRate(TimeUnit.SECONDS), offset(1e-9))
+                .isLessThan(movingAverages.getRate(Duration.ofMinutes(1)));
+    }
+
+    @Test
+    public void readsTheDefaultWindowsByDuration() {
+        final ExponentialMovingAverages movingAverages = new ExponentialMovingAverages(clock);
+
+        movingAverages.update(5);
+        clock.addSeconds(6);
+        movingAverages.tickIfNecessary();
+
+        assertThat(movingAverages.getRate(Duration.ofMinutes(5)))
+                .isEqualTo(movingAverages.getM5Rate())
+                .isEqualTo(1.0, offset(1e-9));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsUnknownWindows() {
+        new ExponentialMovingAverages(clock).getRate(Duration.ofSeconds(10));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsEmptyWindows() {
+        new ExponentialMovingAverages(clock, Duration.ZERO);
+    }
+}
@@ -250,6 +250,36 @@ public class ExponentiallyDecayingReservoirTest {
         }
     }
 
+    @Test
+    public void rescaleCarriesOverExistingSamples() {
+        final ManualClock clock = new ManualClock();
+        final ExponentiallyDecayingReservoir reservoir = new ExponentiallyDecayingReservoir(100,
+                0.015,
+                clock);
+
+        for (int i = 0; i < 50; i++) {
+            reservoir.update(1000 + i);
+        }
+
+        // the next update triggers a rescale and moves only a few of the old samples over
+        clock.addHours(1);
+        reservoir.update(2000);
+
+        assertThat(reservoir.size())
+                .isEqualTo(51);
+
+        final Snapshot snapshot = reservoir.getSnapshot();
+        assertThat(snapshot.size())
+                .isEqualTo(51);
+        assertThat(snapshot.getMin())
+                .isEqualTo(1000);
+        assertThat(snapshot.getMax())
+                .isEqualTo(2000);
+        // the new sample outweighs all the old ones after an hour of decay
+        assertThat(snapshot.getMedian())
+                .isEqualTo(2000);
+    }
+
     @Test
     public void spotLift() {
         final ManualClock clock = new ManualClock();
@@ -370,4 +400,23 @@ public class ExponentiallyDecayingReservoirTest {
         }
     }
 
+    @Test
+    public void aReservoirOf100OutOf1000BatchedElements() {
+        final ExponentiallyDecayingReservoir reservoir = new ExponentiallyDecayingReservoir(100, 0.99);
+        final long[] values = new long[1000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = i;
+        }
+        reservoir.update(values, 0, values.length);
+
+        assertThat(reservoir.size())
+                .isEqualTo(100);
+
+        final Snapshot snapshot = reservoir.getSnapshot();
+
+        assertThat(snapshot.size())
+                .isEqualTo(100);
+
+        assertAllValuesBetween(reservoir, 0, 1000);
+    }
 }
@@ -3,8 +3,10 @@ package com.codahale.metrics;
 import org.junit.Test;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
 import static org.mockito.Mockito.when;
 
 public class HistogramTest {
@@ -37,4 +39,27 @@ public class HistogramTest {
 
         verify(reservoir).update(1);
     }
+
+    @Test
+    public void updatesTheCountAndTheReservoirOnBatchUpdates() {
+        final long[] values = {1, 2, 3, 4};
+
+        histogram.update(values, 1, 2);
+
+        assertThat(histogram.getCount())
+                .isEqualTo(2);
+
+        verify(reservoir).update(values, 1, 2);
+    }
+
+    @Test
+    public void rejectsBatchesOutOfBoundsWithoutCountingThem() {
+        assertThatThrownBy(() -> histogram.update(new long[]{1, 2}, 1, 2))
+                .isInstanceOf(IndexOutOfBoundsException.class);
+
+        assertThat(histogram.getCount())
+                .isZero();
+
+        verifyZeroInteractions(reservoir);
+    }
 }
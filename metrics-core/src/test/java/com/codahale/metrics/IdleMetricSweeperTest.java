@@ -0,0 +1,136 @@
+package com.codahale.metrics;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+public class IdleMetricSweeperTest {
+    private final MetricRegistryListener listener = mock(MetricRegistryListener.class);
+    private final MetricRegistry registry = new MetricRegistry();
+    private final ManualClock clock = new ManualClock();
+    private final IdleMetricSweeper sweeper =
+            new IdleMetricSweeper(registry, MetricFilter.ALL, true, clock, 10, TimeUnit.SECONDS);
+
+    @After
+    public void tearDown() {
+        sweeper.close();
+    }
+
+    @Test
+    public void removesMetricsWhichAreNotUpdated() {
+        registry.addListener(listener);
+        registry.timer("idle");
+        final Counter active = registry.counter("active");
+
+        assertThat(sweeper.sweep())
+                .isZero();
+
+        clock.addSeconds(6);
+        active.inc();
+
+        assertThat(sweeper.sweep())
+                .isZero();
+
+        clock.addSeconds(6);
+
+        assertThat(sweeper.sweep())
+                .isEqualTo(1);
+        assertThat(registry.getNames())
+                .containsExactly("active");
+        verify(listener).onTimerRemoved("idle");
+        verify(listener, never()).onCounterRemoved("active");
+
+        clock.addSeconds(6);
+
+        assertThat(sweeper.sweep())
+                .isEqualTo(1);
+        assertThat(registry.getNames())
+                .isEmpty();
+    }
+
+    @Test
+    public void startsTrackingReplacedMetricsAnew() {
+        registry.meter("meter");
+        sweeper.sweep();
+        clock.addSeconds(11);
+        registry.remove("meter");
+        registry.meter("meter");
+
+        assertThat(sweeper.sweep())
+                .isZero();
+        assertThat(registry.getNames())
+                .containsExactly("meter");
+    }
+
+    @Test
+    public void keepsGaugesAndMetricsNotMatchingTheFilter() {
+        final IdleMetricSweeper filtered = new IdleMetricSweeper(registry,
+                MetricFilter.startsWith("dynamic."), true, clock, 10, TimeUnit.SECONDS);
+        registry.gauge("gauge", () -> () -> 1);
+        registry.histogram("static");
+        registry.histogram("dynamic.host");
+        filtered.sweep();
+        clock.addSeconds(10);
+
+        assertThat(filtered.sweep())
+                .isEqualTo(1);
+        assertThat(registry.getNames())
+                .containsExactly("gauge", "static");
+    }
+
+    @Test
+    public void keepsCountersUnlessAskedToSweepThem() {
+        final IdleMetricSweeper withoutCounters = new IdleMetricSweeper(registry, MetricFilter.ALL, false,
+                clock, 10, TimeUnit.SECONDS);
+        final Counter inProgress = registry.counter("in-progress");
+        registry.meter("meter");
+        withoutCounters.sweep();
+        inProgress.inc();
+        inProgress.dec();
+        clock.addSeconds(10);
+
+        assertThat(withoutCounters.sweep())
+                .isEqualTo(1);
+        assertThat(registry.getNames())
+                .containsExactly("in-progress");
+    }
+
+    @Test
+    public void sweepsOnABackgroundThread() throws Exception {
+        final CountDownLatch removed = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            removed.countDown();
+            return null;
+        }).when(listener).onMeterRemoved(any());
+        final IdleMetricSweeper background = new IdleMetricSweeper(registry, MetricFilter.ALL,
+                1, TimeUnit.MILLISECONDS);
+        registry.addListener(listener);
+        registry.meter("meter");
+
+        try {
+            background.start(5, TimeUnit.MILLISECONDS);
+
+            assertThat(removed.await(5, TimeUnit.SECONDS))
+                    .isTrue();
+            assertThat(registry.getNames())
+                    .isEmpty();
+        } finally {
+            background.close();
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void cannotBeStartedTwice() {
+        sweeper.start(1, TimeUnit.SECONDS);
+        sweeper.start(1, TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,93 @@
+package com.codahale.metrics;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class IntervalReservoirTest {
+    private final IntervalReservoir reservoir = new IntervalReservoir(100);
+
+    @Test
+    public void snapshotsOnlyHoldTheValuesOfTheirInterval() {
+        reservoir.update(1);
+        reservoir.update(2);
+
+        assertThat(reservoir.getSnapshot().getValues())
+                .containsOnly(1, 2);
+
+        reservoir.update(3);
+
+        assertThat(reservoir.getSnapshot().getValues())
+                .containsOnly(3);
+        assertThat(reservoir.getSnapshot().size())
+                .isZero();
+    }
+
+    @Test
+    public void sizeIsTheNumberOfValuesOfTheCurrentInterval() {
+        reservoir.update(1);
+        reservoir.update(2);
+
+        assertThat(reservoir.size())
+                .isEqualTo(2);
+
+        reservoir.getSnapshot();
+
+        assertThat(reservoir.size())
+                .isZero();
+    }
+
+    @Test
+    public void keepsAUniformSampleOfLargeIntervals() {
+        for (int i = 0; i < 1000; i++) {
+            reservoir.update(i);
+        }
+
+        assertThat(reservoir.size())
+                .isEqualTo(100);
+
+        final Snapshot snapshot = reservoir.getSnapshot();
+
+        assertThat(snapshot.size())
+                .isEqualTo(100);
+        for (long value : snapshot.getValues()) {
+            assertThat(value)
+                    .isBetween(0L, 999L);
+        }
+    }
+
+    @Test
+    public void doesNotLoseValuesRecordedWhileSwapping() throws Exception {
+        final int threadCount = 4;
+        final int updatesPerThread = 20_000;
+        final IntervalReservoir large = new IntervalReservoir(threadCount * updatesPerThread);
+        final CountDownLatch done = new CountDownLatch(threadCount);
+        final List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < threadCount; i++) {
+            final Thread thread = new Thread(() -> {
+                for (int j = 0; j < updatesPerThread; j++) {
+                    large.update(j);
+                }
+                done.countDown();
+            });
+            threads.add(thread);
+            thread.start();
+        }
+
+        long recorded = 0;
+        while (done.getCount() > 0) {
+            recorded += large.getSnapshot().size();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        recorded += large.getSnapshot().size();
+
+        assertThat(recorded)
+                .isEqualTo(threadCount * updatesPerThread);
+    }
+}
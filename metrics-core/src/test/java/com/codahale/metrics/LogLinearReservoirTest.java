@@ -0,0 +1,118 @@
+package com.codahale.metrics;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.offset;
+import static org.assertj.core.api.Assertions.within;
+
+public class LogLinearReservoirTest {
+    private final LogLinearReservoir reservoir = new LogLinearReservoir();
+
+    @Test
+    public void smallValuesAreExact() {
+        for (long value : new long[]{5, 1, 2, 3, 4}) {
+            reservoir.update(value);
+        }
+
+        final Snapshot snapshot = reservoir.getSnapshot();
+
+        assertThat(reservoir.size())
+                .isEqualTo(5);
+        assertThat(snapshot.size())
+                .isEqualTo(5);
+        assertThat(snapshot.getValues())
+                .containsExactly(1, 2, 3, 4, 5);
+        assertThat(snapshot.getMin())
+                .isEqualTo(1);
+        assertThat(snapshot.getMax())
+                .isEqualTo(5);
+        assertThat(snapshot.getMedian())
+                .isEqualTo(3, offset(0.1));
+        assertThat(snapshot.getValue(0.0))
+                .isEqualTo(1, offset(0.1));
+        assertThat(snapshot.getMean())
+                .isEqualTo(3, offset(0.1));
+        assertThat(snapshot.getStdDev())
+                .isEqualTo(1.5811, offset(0.0001));
+    }
+
+    @Test
+    public void largeValuesAreWithinTheSignificantDigits() {
+        for (long i = 1; i <= 100_000; i++) {
+            reservoir.update(i * 1000);
+        }
+
+        final Snapshot snapshot = reservoir.getSnapshot();
+
+        assertThat(snapshot.size())
+                .isEqualTo(100_000);
+        assertThat(snapshot.getMedian())
+                .isCloseTo(50_000_000, within(500_000.0));
+        assertThat(snapshot.get99thPercentile())
+                .isCloseTo(99_000_000, within(990_000.0));
+        assertThat(snapshot.getMax())
+                .isCloseTo(100_000_000L, within(1_000_000L));
+        assertThat(snapshot.getMean())
+                .isCloseTo(50_000_500, within(500_000.0));
+    }
+
+    @Test
+    public void countsValuesOutsideTheTrackableRangeAtItsEdges() {
+        final LogLinearReservoir reservoir = new LogLinearReservoir(2, 1000);
+        reservoir.update(-10);
+        reservoir.update(1_000_000);
+
+        final Snapshot snapshot = reservoir.getSnapshot();
+
+        assertThat(snapshot.getMin())
+                .isEqualTo(0);
+        assertThat(snapshot.getMax())
+                .isCloseTo(1000L, within(10L));
+    }
+
+    @Test
+    public void anEmptyReservoirHasAnEmptySnapshot() {
+        final Snapshot snapshot = reservoir.getSnapshot();
+
+        assertThat(snapshot.size())
+                .isZero();
+        assertThat(snapshot.getValues())
+                .isEmpty();
+        assertThat(snapshot.getMedian())
+                .isZero();
+        assertThat(snapshot.getMin())
+                .isZero();
+        assertThat(snapshot.getMax())
+                .isZero();
+        assertThat(snapshot.getMean())
+                .isZero();
+        assertThat(snapshot.getStdDev())
+                .isZero();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void disallowsQuantileOverOne() {
+        reservoir.getSnapshot().getValue(1.5);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void disallowsTooManySignificantDigits() {
+        new LogLinearReservoir(6, 1000);
+    }
+
+    @Test
+    public void dumpsToAStream() {
+        reservoir.update(1);
+        reservoir.update(2);
+        reservoir.update(2);
+
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        reservoir.getSnapshot().dump(output);
+
+        assertThat(output.toString())
+                .isEqualTo(String.format("1%n2%n"));
+    }
+}
@@ -0,0 +1,137 @@
+package com.codahale.metrics;
+
+import org.junit.After;
+import org.junit.Test;
+import org.mockito.InOrder;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.offset;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+public class MeterTickerTest {
+    private final ManualClock clock = new ManualClock();
+    private final MeterTicker ticker = new MeterTicker(Executors.newSingleThreadScheduledExecutor(), true);
+
+    @After
+    public void tearDown() {
+        ticker.close();
+    }
+
+    @Test
+    public void markingOnlyCountsTheEvents() {
+        final MovingAverages movingAverages = mock(MovingAverages.class);
+        final Meter meter = new Meter(movingAverages, clock, ticker);
+
+        meter.mark();
+        meter.mark(2);
+
+        assertThat(meter.getCount())
+                .isEqualTo(3);
+        verifyNoInteractions(movingAverages);
+    }
+
+    @Test
+    public void feedsTheEventsSinceThePreviousTickIntoTheMovingAverages() {
+        final MovingAverages movingAverages = mock(MovingAverages.class);
+        final Meter meter = new Meter(movingAverages, clock, ticker);
+
+        meter.mark(3);
+        ticker.tick();
+        meter.mark(2);
+        ticker.tick();
+
+        final InOrder inOrder = inOrder(movingAverages);
+        inOrder.verify(movingAverages).update(3);
+        inOrder.verify(movingAverages).tickIfNecessary();
+        inOrder.verify(movingAverages).update(2);
+        inOrder.verify(movingAverages).tickIfNecessary();
+    }
+
+    @Test
+    public void updatesTheRatesOnTick() {
+        final Meter meter = new Meter(new ExponentialMovingAverages(clock), clock, ticker);
+
+        meter.mark(3);
+
+        assertThat(meter.getOneMinuteRate())
+                .isZero();
+
+        clock.addSeconds(6);
+        ticker.tick();
+
+        assertThat(meter.getOneMinuteRate())
+                .isEqualTo(0.6, offset(0.001));
+        assertThat(meter.getFiveMinuteRate())
+                .isEqualTo(0.6, offset(0.001));
+        assertThat(meter.getFifteenMinuteRate())
+                .isEqualTo(0.6, offset(0.001));
+    }
+
+    @Test
+    public void keepsTickingOtherMetersWhenOneFails() {
+        final MovingAverages failing = mock(MovingAverages.class);
+        doThrow(new IllegalStateException("boom")).when(failing).tickIfNecessary();
+        final MovingAverages movingAverages = mock(MovingAverages.class);
+        final Meter failingMeter = new Meter(failing, clock, ticker);
+        final Meter meter = new Meter(movingAverages, clock, ticker);
+
+        ticker.tick();
+
+        verify(movingAverages).tickIfNecessary();
+        assertThat(failingMeter.getCount() + meter.getCount())
+                .isZero();
+    }
+
+    @Test
+    public void ticksTheMetersOfTimers() {
+        final Timer timer = new Timer(new UniformReservoir(), clock, ticker);
+
+        timer.update(1, TimeUnit.MILLISECONDS);
+        timer.update(2, TimeUnit.MILLISECONDS);
+        timer.update(3, TimeUnit.MILLISECONDS);
+
+        assertThat(timer.getOneMinuteRate())
+                .isZero();
+
+        clock.addSeconds(6);
+        ticker.tick();
+
+        assertThat(timer.getOneMinuteRate())
+                .isEqualTo(0.6, offset(0.001));
+    }
+
+    @Test
+    public void suppliesTickedMetricsToRegistries() {
+        final MetricRegistry registry = new MetricRegistry();
+        final Meter meter = registry.meter("meter", ticker.meters());
+        final Timer timer = registry.timer("timer", ticker.timers(UniformReservoir::new));
+
+        meter.mark();
+        timer.update(1, TimeUnit.MILLISECONDS);
+
+        assertThat(registry.meter("meter", ticker.meters()))
+                .isSameAs(meter);
+        assertThat(meter.getCount())
+                .isEqualTo(1);
+        assertThat(timer.getCount())
+                .isEqualTo(1);
+    }
+
+    @Test
+    public void numbersItsThreads() {
+        try (MeterTicker first = new MeterTicker(); MeterTicker second = new MeterTicker()) {
+            assertThat(Thread.getAllStackTraces().keySet())
+                    .extracting(Thread::getName)
+                    .filteredOn(name -> name.startsWith("metrics-meter-ticker-"))
+                    .doesNotHaveDuplicates()
+                    .hasSizeGreaterThanOrEqualTo(2);
+        }
+    }
+}
@@ -35,4 +35,26 @@ public class MetricFilterTest {
         assertThat(MetricFilter.contains("foo").matches("bar.bar", mock(Metric.class)))
                 .isFalse();
     }
+
+    @Test
+    public void theHasTagFilterMatches() {
+        final MetricFilter filter = MetricFilter.hasTag("method", "GET");
+
+        assertThat(filter.matches("requests;method=GET", mock(Metric.class)))
+                .isTrue();
+        assertThat(filter.matches("requests;method=GET;status=200", mock(Metric.class)))
+                .isTrue();
+        assertThat(filter.matches("requests;method=GETS", mock(Metric.class)))
+                .isFalse();
+        assertThat(filter.matches("requests.method=GET", mock(Metric.class)))
+                .isFalse();
+    }
+
+    @Test
+    public void theStartsWithFilterHasItsPrefix() {
+        assertThat(MetricFilter.startsWith("foo").getPrefix())
+                .isEqualTo("foo");
+        assertThat(MetricFilter.ALL.getPrefix())
+                .isEmpty();
+    }
 }
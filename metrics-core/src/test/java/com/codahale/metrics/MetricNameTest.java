@@ -0,0 +1,123 @@
+package com.codahale.metrics;
+
+import org.junit.Test;
+
+import java.lang.ref.WeakReference;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+
+public class MetricNameTest {
+    private final MetricName requests = MetricName.of("http", "requests");
+
+    @Test
+    public void untaggedNamesUseTheDottedName() {
+        assertThat(requests.getKey())
+                .isEqualTo("http.requests");
+        assertThat(requests.getName())
+                .isEqualTo("http.requests");
+        assertThat(requests.getTags())
+                .isEmpty();
+    }
+
+    @Test
+    public void taggedNamesSortTheirTagsIntoTheKey() {
+        final MetricName name = MetricName.tagged("http.requests", "status", "200", "method", "GET");
+
+        assertThat(name.getKey())
+                .isEqualTo("http.requests;method=GET;status=200");
+        assertThat(name.getName())
+                .isEqualTo("http.requests");
+        assertThat(name.getTags())
+                .containsExactly(entry("method", "GET"), entry("status", "200"));
+    }
+
+    @Test
+    public void taggedNamesAreInterned() {
+        final MetricName name = requests.withTag("method", "GET").withTag("status", "200");
+
+        assertThat(name)
+                .isSameAs(requests.withTag("method", "GET").withTag("status", "200"))
+                .isSameAs(requests.withTag("status", "200").withTag("method", "GET"))
+                .isSameAs(MetricName.tagged("http.requests", "method", "GET", "status", "200"));
+    }
+
+    @Test
+    public void addingATagReplacesTheTagWithTheSameKey() {
+        assertThat(requests.withTag("method", "GET").withTag("method", "POST"))
+                .isSameAs(requests.withTag("method", "POST"));
+    }
+
+    @Test
+    public void taggedNamesResolveToTheirMetrics() {
+        final MetricRegistry registry = new MetricRegistry();
+        final Timer timer = registry.resolveTimer(requests.withTag("method", "GET"));
+
+        assertThat(registry.resolveTimer(requests.withTag("method", "GET")))
+                .isSameAs(timer);
+        assertThat(registry.getTimers(MetricFilter.hasTag("method", "GET")))
+                .containsOnlyKeys("http.requests;method=GET");
+    }
+
+    @Test
+    public void unreferencedTaggedNamesAreReclaimed() throws Exception {
+        final WeakReference<MetricName> customer = new WeakReference<>(requests.withTag("customer", "c1"));
+
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (customer.get() != null && System.nanoTime() < deadline) {
+            System.gc();
+            Thread.sleep(10);
+        }
+
+        assertThat(customer.get())
+                .isNull();
+        assertThat(requests.withTag("customer", "c1").getKey())
+                .isEqualTo("http.requests;customer=c1");
+    }
+
+    @Test
+    public void taggedNamesDontRememberTheMetricOfARegistry() {
+        final MetricRegistry first = new MetricRegistry();
+        final MetricRegistry second = new MetricRegistry();
+        final MetricName name = requests.withTag("method", "PUT");
+
+        final Timer timer = first.resolveTimer(name);
+
+        assertThat(second.resolveTimer(name))
+                .isNotSameAs(timer);
+        assertThat(first.resolveTimer(name))
+                .isSameAs(timer);
+    }
+
+    @Test
+    public void onlyNamesWhichAreNotInternedRememberTheirMetric() {
+        final AtomicLong removals = new AtomicLong();
+        final Timer timer = new Timer();
+        final MetricName tagged = requests.withTag("method", "DELETE");
+
+        requests.resolve(removals, 0, timer);
+        tagged.resolve(removals, 0, timer);
+
+        assertThat(requests.resolvedIn(removals, 0, Timer.class))
+                .isSameAs(timer);
+        assertThat(tagged.resolvedIn(removals, 0, Timer.class))
+                .isNull();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsUnpairedTags() {
+        MetricName.tagged("http.requests", "method");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsReservedCharactersInTagKeys() {
+        requests.withTag("method=", "GET");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsReservedCharactersInTagValues() {
+        requests.withTag("method", "GET;status=200");
+    }
+}
@@ -7,10 +7,16 @@ import org.junit.Test;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 import static com.codahale.metrics.MetricRegistry.name;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.assertj.core.api.Assertions.entry;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
@@ -580,4 +586,573 @@ public class MetricRegistryTest {
             Assert.assertEquals("metric == null", e.getMessage());
         }
     }
+
+    @Test
+    public void histogramsAndTimersUseTheConfiguredReservoir() {
+        final Reservoir reservoir = mock(Reservoir.class);
+        final MetricRegistry registry = new MetricRegistry(() -> reservoir);
+
+        registry.histogram("histogram").update(1);
+        registry.timer("timer").update(2, TimeUnit.NANOSECONDS);
+
+        verify(reservoir).update(1);
+        verify(reservoir).update(2);
+    }
+
+    @Test
+    public void accessingATimerByMetricNameRegistersAndReusesIt() {
+        final MetricName name = MetricName.of("thing", "timer");
+        final Timer timer1 = registry.resolveTimer(name);
+        final Timer timer2 = registry.resolveTimer(name);
+
+        assertThat(timer1)
+                .isSameAs(timer2)
+                .isSameAs(registry.timer("thing.timer"));
+
+        verify(listener).onTimerAdded("thing.timer", timer1);
+    }
+
+    @Test
+    public void metricNamesDoNotResolveToRemovedMetrics() {
+        final MetricName name = MetricName.of("thing");
+        final Meter meter1 = registry.resolveMeter(name);
+
+        registry.remove("thing");
+        final Meter meter2 = registry.resolveMeter(name);
+
+        assertThat(meter2)
+                .isNotSameAs(meter1)
+                .isSameAs(registry.getMeters().get("thing"));
+    }
+
+    @Test
+    public void metricNamesResolveInEachRegistry() {
+        final MetricRegistry other = new MetricRegistry();
+        final MetricName name = MetricName.of("thing");
+
+        final Counter counter1 = registry.resolveCounter(name);
+        final Counter counter2 = other.resolveCounter(name);
+
+        assertThat(counter1)
+                .isNotSameAs(counter2);
+        assertThat(registry.resolveCounter(name))
+                .isSameAs(counter1);
+        assertThat(other.resolveCounter(name))
+                .isSameAs(counter2);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void metricNamesResolvedToAnotherTypeAreRejected() {
+        final MetricName name = MetricName.of("thing");
+        registry.resolveHistogram(name);
+
+        registry.resolveTimer(name);
+    }
+
+    @Test
+    public void metricNamesAreComparedByKey() {
+        assertThat(MetricName.of(MetricRegistryTest.class, "one", null, "two"))
+                .isEqualTo(MetricName.of(name(MetricRegistryTest.class, "one", "two")))
+                .hasSameHashCodeAs(MetricName.of(name(MetricRegistryTest.class, "one", "two")))
+                .isNotEqualTo(MetricName.of("one", "two"));
+    }
+
+    @Test
+    public void typedMapsDoNotContainRemovedMetrics() {
+        registry.register("counter", counter);
+        registry.register("timer", timer);
+        registry.remove("timer");
+        registry.register("timer", meter);
+
+        assertThat(registry.getCounters())
+                .containsOnlyKeys("counter");
+        assertThat(registry.getTimers())
+                .isEmpty();
+        assertThat(registry.getMeters())
+                .containsOnlyKeys("timer");
+    }
+
+    @Test
+    public void typedMapsContainMetricsOfSeveralTypes() {
+        final CountingGauge countingGauge = new CountingGauge();
+        registry.register("thing", countingGauge);
+
+        assertThat(registry.getCounters())
+                .containsOnlyKeys("thing");
+        assertThat(registry.getGauges())
+                .containsOnlyKeys("thing");
+    }
+
+    @Test
+    public void typedMapsOfRegistriesWithCustomMapsContainTheirMetrics() {
+        final MetricRegistry custom = new MetricRegistry() {
+            @Override
+            protected ConcurrentMap<String, Metric> buildMap() {
+                return new ConcurrentSkipListMap<>();
+            }
+        };
+        custom.register("counter", counter);
+        custom.register("timer", timer);
+
+        assertThat(custom.getTimers())
+                .containsOnlyKeys("timer");
+    }
+
+    @Test
+    public void sortedRegistriesReturnLiveViews() {
+        final MetricRegistry sorted = new MetricRegistry(ExponentiallyDecayingReservoir::new, true);
+        final SortedSet<String> names = sorted.getNames();
+        final SortedMap<String, Timer> timers = sorted.getTimers();
+
+        sorted.register("b", timer);
+        sorted.register("a", counter);
+        sorted.timer("c");
+
+        assertThat(names)
+                .containsExactly("a", "b", "c");
+        assertThat(timers.keySet())
+                .containsExactly("b", "c");
+
+        sorted.remove("b");
+
+        assertThat(timers.keySet())
+                .containsExactly("c");
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void sortedRegistriesReturnUnmodifiableViews() {
+        final MetricRegistry sorted = new MetricRegistry(ExponentiallyDecayingReservoir::new, true);
+
+        sorted.getTimers().put("thing", timer);
+    }
+
+    @Test
+    public void sortedRegistriesCopyFilteredMetrics() {
+        final MetricRegistry sorted = new MetricRegistry(ExponentiallyDecayingReservoir::new, true);
+        sorted.register("foo.b", timer);
+        sorted.register("bar", mock(Timer.class));
+        sorted.register("foo.a", mock(Timer.class));
+
+        final SortedMap<String, Timer> timers = sorted.getTimers(MetricFilter.startsWith("foo."));
+        sorted.remove("foo.a");
+
+        assertThat(timers.keySet())
+                .containsExactly("foo.a", "foo.b");
+    }
+
+    @Test
+    public void sortedRegistriesRemoveMetricsMatchingAPrefix() {
+        final MetricRegistry sorted = new MetricRegistry(ExponentiallyDecayingReservoir::new, true);
+        sorted.counter("tenant.4");
+        sorted.counter("tenant.42.a");
+        sorted.counter("tenant.42.b");
+        sorted.counter("tenant.420.a");
+        sorted.counter("tenant.43.a");
+        sorted.counter("tenant.42\uffff");
+
+        sorted.removeMatching(MetricFilter.startsWith("tenant.42."));
+
+        assertThat(sorted.getNames())
+                .containsExactly("tenant.4", "tenant.420.a", "tenant.42\uffff", "tenant.43.a");
+
+        sorted.removeMatching(MetricFilter.startsWith("tenant.42\uffff"));
+
+        assertThat(sorted.getNames())
+                .containsExactly("tenant.4", "tenant.420.a", "tenant.43.a");
+    }
+
+    @Test
+    public void sortedRegistriesCombinePrefixesWithTheirFilters() {
+        final MetricRegistry sorted = new MetricRegistry(ExponentiallyDecayingReservoir::new, true);
+        sorted.timer("foo.a");
+        sorted.timer("foo.b");
+        sorted.timer("food");
+
+        final MetricFilter filter = new MetricFilter() {
+            @Override
+            public boolean matches(String name, Metric metric) {
+                return name.startsWith("foo.") && !name.endsWith("b");
+            }
+
+            @Override
+            public String getPrefix() {
+                return "foo.";
+            }
+        };
+
+        assertThat(sorted.getTimers(filter))
+                .containsOnlyKeys("foo.a");
+    }
+
+    @Test
+    public void mountedRegistriesAreReadThroughWithoutCopyingTheirMetrics() {
+        final MetricRegistry child = new MetricRegistry();
+        final Timer childTimer = child.timer("requests");
+        registry.mount("child", child);
+
+        final Counter late = child.counter("late");
+
+        assertThat(registry.getTimers())
+                .containsOnly(entry("child.requests", childTimer));
+        assertThat(registry.getCounters())
+                .containsOnly(entry("child.late", late));
+        assertThat(registry.getNames())
+                .containsExactly("child.late", "child.requests");
+        assertThat(registry.getMetrics())
+                .containsOnlyKeys("child.late", "child.requests");
+        assertThat(child.getNames())
+                .containsExactly("late", "requests");
+    }
+
+    @Test
+    public void mountedRegistriesAreFilteredByTheirPrefixedNames() {
+        final MetricRegistry sorted = new MetricRegistry(ExponentiallyDecayingReservoir::new, true);
+        final MetricRegistry child = new MetricRegistry(ExponentiallyDecayingReservoir::new, true);
+        sorted.timer("tenant.a");
+        child.timer("a");
+        child.timer("b.c");
+        sorted.mount("tenant.child", child);
+        sorted.mount("other", new MetricRegistry());
+
+        assertThat(sorted.getTimers(MetricFilter.startsWith("tenant.")))
+                .containsOnlyKeys("tenant.a", "tenant.child.a", "tenant.child.b.c");
+        assertThat(sorted.getTimers(MetricFilter.startsWith("tenant.child.b")))
+                .containsOnlyKeys("tenant.child.b.c");
+        assertThat(sorted.getTimers(MetricFilter.startsWith("tenant.childish")))
+                .isEmpty();
+        assertThat(sorted.getTimers((name, metric) -> name.endsWith(".c")))
+                .containsOnlyKeys("tenant.child.b.c");
+    }
+
+    @Test
+    public void ownMetricsHideMountedMetricsWithTheSameName() {
+        final MetricRegistry child = new MetricRegistry();
+        child.register("a", counter);
+        final Counter own = registry.counter("child.a");
+        registry.mount("child", child);
+
+        assertThat(registry.getCounters())
+                .containsOnly(entry("child.a", own));
+        assertThat(registry.getMetrics())
+                .containsOnly(entry("child.a", own));
+
+        child.remove("a");
+        child.register("a", counter);
+        registry.unmount("child");
+
+        verify(listener).onCounterAdded("child.a", own);
+        verify(listener, never()).onCounterAdded("child.a", counter);
+        verify(listener, never()).onCounterRemoved("child.a");
+    }
+
+    @Test
+    public void mountedRegistriesNotifyListenersWithPrefixedNames() {
+        final MetricRegistry child = new MetricRegistry();
+        child.register("existing", counter);
+        registry.mount("child", child);
+
+        verify(listener).onCounterAdded("child.existing", counter);
+
+        child.register("added", timer);
+        child.remove("added");
+
+        verify(listener).onTimerAdded("child.added", timer);
+        verify(listener).onTimerRemoved("child.added");
+
+        final MetricRegistryListener other = mock(MetricRegistryListener.class);
+        registry.addListener(other);
+
+        verify(other).onCounterAdded("child.existing", counter);
+
+        registry.removeListener(other);
+        child.register("ignored", meter);
+
+        verify(other, never()).onMeterAdded("child.ignored", meter);
+    }
+
+    @Test
+    public void unmountingARegistryNotifiesListenersOfItsRemoval() {
+        final MetricRegistry child = new MetricRegistry();
+        child.register("thing", histogram);
+        registry.mount("child", child);
+
+        assertThat(registry.unmount("child"))
+                .isTrue();
+        assertThat(registry.unmount("child"))
+                .isFalse();
+
+        verify(listener).onHistogramRemoved("child.thing");
+
+        child.register("later", meter);
+
+        verify(listener, never()).onMeterAdded("child.later", meter);
+        assertThat(registry.getNames())
+                .isEmpty();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void registriesCannotBeMountedTwiceUnderTheSamePrefix() {
+        registry.mount("child", new MetricRegistry());
+        registry.mount("child", new MetricRegistry());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void registriesCannotBeMountedInThemselves() {
+        registry.mount("child", registry);
+    }
+
+    @Test
+    public void registriesCannotBeMountedInEachOther() {
+        final MetricRegistry child = new MetricRegistry();
+        final MetricRegistry grandchild = new MetricRegistry();
+        registry.mount("child", child);
+        child.mount("grandchild", grandchild);
+
+        assertThatThrownBy(() -> child.mount("parent", registry))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> grandchild.mount("grandparent", registry))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        grandchild.counter("x");
+
+        assertThat(registry.getNames())
+                .containsExactly("child.grandchild.x");
+        verify(listener).onCounterAdded("child.grandchild.x", grandchild.counter("x"));
+    }
+
+    @Test
+    public void limitedPrefixesReturnOverflowMetricsOnceFull() {
+        registry.limitCardinality("hosts", 2);
+        final Timer a = registry.timer("hosts.a");
+        final Timer b = registry.timer("hosts.b");
+
+        final Timer overflow = registry.timer("hosts.c");
+
+        assertThat(overflow)
+                .isNotSameAs(a)
+                .isNotSameAs(b)
+                .isSameAs(registry.timer("hosts.d"))
+                .isSameAs(registry.getTimers().get("hosts.overflow.timer"));
+        assertThat(registry.counter("hosts.e"))
+                .isSameAs(registry.getCounters().get("hosts.overflow.counter"));
+        assertThat(registry.getCounters().get("hosts.rejected").getCount())
+                .isEqualTo(3);
+        assertThat(registry.getNames())
+                .containsExactly("hosts.a", "hosts.b", "hosts.overflow.counter", "hosts.overflow.timer",
+                        "hosts.rejected");
+        assertThat(registry.timer("hosts.a"))
+                .isSameAs(a);
+        assertThat(registry.timer("other.c"))
+                .isNotSameAs(overflow);
+    }
+
+    @Test
+    public void removingLimitedMetricsMakesRoomForNewOnes() {
+        registry.meter("hosts.a");
+        registry.limitCardinality("hosts", 1);
+        final MetricName b = MetricName.of("hosts", "b");
+
+        assertThat(registry.resolveMeter(b))
+                .isSameAs(registry.getMeters().get("hosts.overflow.meter"));
+
+        registry.remove("hosts.a");
+
+        assertThat(registry.resolveMeter(b))
+                .isSameAs(registry.getMeters().get("hosts.b"))
+                .isNotSameAs(registry.getMeters().get("hosts.overflow.meter"));
+    }
+
+    @Test
+    public void nestedLimitsDontCountTheMetricsTrackingRejections() {
+        registry.limitCardinality("a", 1);
+        registry.limitCardinality("a.b", 1);
+
+        final Timer x = registry.timer("a.b.x");
+        registry.timer("a.b.y");
+        registry.timer("a.b.z");
+
+        assertThat(registry.getTimers())
+                .containsEntry("a.b.x", x)
+                .doesNotContainKeys("a.b.y", "a.b.z");
+        assertThat(registry.counter("a.rejected").getCount() + registry.counter("a.b.rejected").getCount())
+                .isEqualTo(2);
+    }
+
+    @Test
+    public void nestedLimitsKeepTheirOwnRejectedCounterWhenTheEnclosingLimitIsFull() {
+        registry.limitCardinality("a", 1);
+        registry.counter("a.c");
+        registry.counter("a.d");
+        registry.limitCardinality("a.b", 1);
+
+        assertThat(registry.getCounters())
+                .containsKey("a.b.rejected");
+        assertThat(registry.counter("a.b.rejected"))
+                .isNotSameAs(registry.counter("a.overflow.counter"));
+        assertThat(registry.counter("a.rejected").getCount())
+                .isEqualTo(1);
+    }
+
+    @Test
+    public void rejectedMetricNamesAreCountedOnEveryLookup() {
+        registry.limitCardinality("hosts", 0);
+        final MetricName a = MetricName.of("hosts", "a");
+
+        registry.resolveCounter(a);
+        registry.resolveCounter(a);
+
+        assertThat(registry.getCounters().get("hosts.rejected").getCount())
+                .isEqualTo(2);
+    }
+
+    @Test
+    public void reRegisteredMetricsAreCountedOnce() {
+        registry.limitCardinality("hosts", 2);
+        registry.register("hosts.a", counter);
+        registry.remove("hosts.a");
+        registry.register("hosts.a", counter);
+
+        assertThat(registry.meter("hosts.b"))
+                .isSameAs(registry.getMeters().get("hosts.b"));
+        assertThat(registry.meter("hosts.c"))
+                .isSameAs(registry.getMeters().get("hosts.overflow.meter"));
+    }
+
+    @Test
+    public void explicitlyRegisteredMetricsCountTowardsLimitsWithoutBeingRejected() {
+        registry.limitCardinality("hosts", 1);
+        registry.register("hosts.gauge", gauge);
+        registry.register("hosts.counter", counter);
+
+        assertThat(registry.getNames())
+                .contains("hosts.gauge", "hosts.counter");
+        assertThat(registry.histogram("hosts.histogram"))
+                .isSameAs(registry.getHistograms().get("hosts.overflow.histogram"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void cardinalityLimitsCannotBeNegative() {
+        registry.limitCardinality("hosts", -1);
+    }
+
+    @Test
+    public void disabledMetricsDropTheirUpdatesUntilEnabledAgain() throws Exception {
+        final MetricRegistry switchable = new MetricRegistry(ExponentiallyDecayingReservoir::new, false, true);
+        final Counter counter = switchable.counter("http.counter");
+        final Meter meter = switchable.meter("http.meter");
+        final Histogram histogram = switchable.histogram("http.histogram");
+        final Timer timer = switchable.timer("http.timer");
+        final Timer other = switchable.timer("db.timer");
+
+        switchable.setEnabled("http", false);
+
+        counter.inc();
+        meter.mark();
+        histogram.update(1);
+        histogram.update(new long[]{1, 2}, 0, 2);
+        timer.update(1, TimeUnit.SECONDS);
+        timer.time().stop();
+        assertThat(timer.time(() -> "result"))
+                .isEqualTo("result");
+        other.update(1, TimeUnit.SECONDS);
+
+        assertThat(counter.getCount() + meter.getCount() + histogram.getCount() + timer.getCount())
+                .isZero();
+        assertThat(other.getCount())
+                .isEqualTo(1);
+
+        switchable.setEnabled("http", true);
+
+        counter.inc();
+        meter.mark();
+        histogram.update(1);
+        timer.update(1, TimeUnit.SECONDS);
+
+        assertThat(switchable.counter("http.counter"))
+                .isSameAs(counter);
+        assertThat(counter.getCount() + meter.getCount() + histogram.getCount() + timer.getCount())
+                .isEqualTo(4);
+    }
+
+    @Test
+    public void theMostSpecificPrefixDecidesWhetherMetricsAreEnabled() {
+        final MetricRegistry switchable = new MetricRegistry(ExponentiallyDecayingReservoir::new, true, true);
+        switchable.setEnabled("http", false);
+        switchable.setEnabled("http.health", true);
+        final Counter disabled = switchable.counter("http.requests");
+        final Counter enabled = switchable.counter("http.health.checks");
+        final Counter unrelated = switchable.counter("httpd.requests");
+
+        disabled.inc();
+        enabled.inc();
+        unrelated.inc();
+
+        assertThat(disabled.getCount())
+                .isZero();
+        assertThat(enabled.getCount())
+                .isEqualTo(1);
+        assertThat(unrelated.getCount())
+                .isEqualTo(1);
+        assertThat(switchable.isEnabled("http"))
+                .isFalse();
+        assertThat(switchable.isEnabled("http.health.checks"))
+                .isTrue();
+
+        switchable.setEnabled("", false);
+
+        assertThat(switchable.isEnabled("http.health.checks"))
+                .isFalse();
+        assertThat(switchable.isEnabled("anything"))
+                .isFalse();
+    }
+
+    @Test
+    public void failingToRegisterASwitchableMetricLeavesItsStateAlone() {
+        final MetricRegistry switchable = new MetricRegistry(ExponentiallyDecayingReservoir::new, false, true);
+        final Counter counter = switchable.counter("db.counter");
+        switchable.counter("http.counter");
+        switchable.setEnabled("http", false);
+
+        assertThatThrownBy(() -> switchable.register("http.counter", counter))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        counter.inc();
+
+        assertThat(counter.getCount())
+                .isEqualTo(1);
+    }
+
+    @Test
+    public void onlyTheRegistryWhichCreatedAMetricCanSwitchIt() {
+        final MetricRegistry first = new MetricRegistry(ExponentiallyDecayingReservoir::new, false, true);
+        final MetricRegistry second = new MetricRegistry(ExponentiallyDecayingReservoir::new, false, true);
+        final Timer timer = first.timer("db.timer");
+        second.setEnabled("http", false);
+        second.register("http.timer", timer);
+
+        timer.update(1, TimeUnit.SECONDS);
+
+        assertThat(timer.getCount())
+                .isEqualTo(1);
+    }
+
+    @Test
+    public void metricsOfRegularRegistriesAreAlwaysEnabled() {
+        assertThat(registry.isEnabled("anything"))
+                .isTrue();
+        assertThat(registry.counter("counter"))
+                .isExactlyInstanceOf(Counter.class);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void metricsOfRegularRegistriesCannotBeDisabled() {
+        registry.setEnabled("http", false);
+    }
+
+    private static class CountingGauge extends Counter implements Gauge<Long> {
+        @Override
+        public Long getValue() {
+            return getCount();
+        }
+    }
 }
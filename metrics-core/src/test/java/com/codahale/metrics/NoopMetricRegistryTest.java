@@ -186,6 +186,15 @@ public class NoopMetricRegistryTest {
         verify(listener, never()).onTimerAdded("thing", timer1);
     }
 
+    @Test
+    public void accessingATimerByMetricNameReturnsTheNoopTimer() {
+        final Timer timer = registry.resolveTimer(MetricName.of("thing"));
+
+        assertThat(timer).isExactlyInstanceOf(NoopMetricRegistry.NoopTimer.class);
+
+        verify(listener, never()).onTimerAdded("thing", timer);
+    }
+
     @Test
     public void accessingACustomTimerRegistersAndReusesIt() {
         final MetricRegistry.MetricSupplier<Timer> supplier = () -> timer;
@@ -0,0 +1,117 @@
+package com.codahale.metrics;
+
+import static com.codahale.metrics.RingBufferMovingAverages.NUMBER_OF_BUCKETS;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+public class RingBufferMovingAveragesTest {
+
+    private final ManualClock clock = new ManualClock();
+    private final RingBufferMovingAverages movingAverages = new RingBufferMovingAverages(clock);
+    private final Meter meter = new Meter(movingAverages, clock);
+
+    @Test
+    public void markMaxWithoutWrapAround() {
+        // compensate the first addSeconds in the loop; first tick should be at zero
+        clock.addSeconds(-1);
+
+        for (int i = 0; i < NUMBER_OF_BUCKETS; i++) {
+            clock.addSeconds(1);
+            meter.mark();
+        }
+
+        assertThat(meter.getOneMinuteRate()).isEqualTo(60.0);
+        assertThat(meter.getFiveMinuteRate()).isEqualTo(300.0);
+        assertThat(meter.getFifteenMinuteRate()).isEqualTo(900.0);
+    }
+
+    @Test
+    public void mark10Values() {
+        clock.addSeconds(-1);
+
+        for (int i = 0; i < 10; i++) {
+            clock.addSeconds(1);
+            meter.mark();
+        }
+
+        assertThat(meter.getCount()).isEqualTo(10L);
+        assertThat(meter.getOneMinuteRate()).isEqualTo(10.0);
+        assertThat(meter.getFiveMinuteRate()).isEqualTo(10.0);
+        assertThat(meter.getFifteenMinuteRate()).isEqualTo(10.0);
+    }
+
+    @Test
+    public void mark1000Values() {
+        for (int i = 0; i < 1000; i++) {
+            clock.addSeconds(1);
+            meter.mark();
+        }
+
+        // only 60/300/900 of the 1000 events took place in the last 1/5/15 minute(s)
+        assertThat(meter.getOneMinuteRate()).isEqualTo(60.0);
+        assertThat(meter.getFiveMinuteRate()).isEqualTo(300.0);
+        assertThat(meter.getFifteenMinuteRate()).isEqualTo(900.0);
+    }
+
+    @Test
+    public void pauseShorterThanWindow() {
+        meter.mark(10);
+
+        // no mark for three minutes
+        clock.addSeconds(180);
+        assertThat(meter.getOneMinuteRate()).isEqualTo(0.0);
+        assertThat(meter.getFiveMinuteRate()).isEqualTo(10.0);
+        assertThat(meter.getFifteenMinuteRate()).isEqualTo(10.0);
+    }
+
+    @Test
+    public void windowWrapAround() {
+        // mark at 14:40 minutes of the 15 minute window...
+        clock.addSeconds(880);
+        meter.mark(10);
+
+        // and query at 15:30 minutes
+        clock.addSeconds(50);
+        assertThat(meter.getOneMinuteRate()).isEqualTo(10.0);
+        assertThat(meter.getFiveMinuteRate()).isEqualTo(10.0);
+        assertThat(meter.getFifteenMinuteRate()).isEqualTo(10.0);
+
+        // and query at 30:10 minutes
+        clock.addSeconds(880);
+        assertThat(meter.getOneMinuteRate()).isEqualTo(0.0);
+        assertThat(meter.getFiveMinuteRate()).isEqualTo(0.0);
+        assertThat(meter.getFifteenMinuteRate()).isEqualTo(0.0);
+    }
+
+    @Test
+    public void pauseLongerThanTwoWindows() {
+        meter.mark(10);
+
+        // after forty minutes all rates should be zero
+        clock.addSeconds(2400);
+        assertThat(meter.getOneMinuteRate()).isEqualTo(0.0);
+        assertThat(meter.getFiveMinuteRate()).isEqualTo(0.0);
+        assertThat(meter.getFifteenMinuteRate()).isEqualTo(0.0);
+    }
+
+    @Test
+    public void matchesSlidingTimeWindowMovingAverages() {
+        final SlidingTimeWindowMovingAverages sliding = new SlidingTimeWindowMovingAverages(clock);
+        final Meter slidingMeter = new Meter(sliding, clock);
+        final Random random = new Random(42);
+
+        for (int i = 0; i < 5000; i++) {
+            clock.addMillis(random.nextInt(3000));
+            final int n = random.nextInt(10);
+            meter.mark(n);
+            slidingMeter.mark(n);
+
+            assertThat(meter.getOneMinuteRate()).isEqualTo(slidingMeter.getOneMinuteRate());
+            assertThat(meter.getFiveMinuteRate()).isEqualTo(slidingMeter.getFiveMinuteRate());
+            assertThat(meter.getFifteenMinuteRate()).isEqualTo(slidingMeter.getFifteenMinuteRate());
+        }
+    }
+}
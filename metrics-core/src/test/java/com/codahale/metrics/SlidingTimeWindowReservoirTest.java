@@ -116,4 +116,25 @@ public class SlidingTimeWindowReservoirTest {
             }
         }
     }
-}
\ No newline at end of file
+
+    @Test
+    public void storesBatchesWithinTheTimeWindow() {
+        final Clock clock = mock(Clock.class);
+        final SlidingTimeWindowReservoir reservoir = new SlidingTimeWindowReservoir(10, NANOSECONDS, clock);
+
+        when(clock.getTick()).thenReturn(0L);
+        reservoir.update(new long[]{1, 2, 3}, 0, 3);
+        reservoir.update(4);
+
+        when(clock.getTick()).thenReturn(5L);
+        reservoir.update(new long[]{5, 6}, 0, 2);
+
+        assertThat(reservoir.getSnapshot().getValues())
+                .containsOnly(1, 2, 3, 4, 5, 6);
+
+        when(clock.getTick()).thenReturn(12L);
+
+        assertThat(reservoir.getSnapshot().getValues())
+                .containsOnly(5, 6);
+    }
+}
@@ -26,4 +26,12 @@ public class SlidingWindowReservoirTest {
         assertThat(reservoir.getSnapshot().getValues())
                 .containsOnly(2, 3, 4);
     }
+
+    @Test
+    public void onlyKeepsTheMostRecentFromBatches() {
+        reservoir.update(new long[]{0, 1, 2, 3, 4, 0}, 1, 4);
+
+        assertThat(reservoir.getSnapshot().getValues())
+                .containsOnly(2, 3, 4);
+    }
 }
@@ -0,0 +1,83 @@
+package com.codahale.metrics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class StripedSlidingTimeWindowArrayReservoirTest {
+
+    @Test
+    public void storesMeasurementsWithDuplicateTicks() {
+        final Clock clock = mock(Clock.class);
+        final StripedSlidingTimeWindowArrayReservoir reservoir =
+                new StripedSlidingTimeWindowArrayReservoir(10, NANOSECONDS, clock, 4);
+
+        when(clock.getTick()).thenReturn(20L);
+
+        reservoir.update(1);
+        reservoir.update(2);
+
+        assertThat(reservoir.getSnapshot().getValues())
+                .containsOnly(1, 2);
+    }
+
+    @Test
+    public void boundsMeasurementsToATimeWindow() {
+        final Clock clock = mock(Clock.class);
+        final StripedSlidingTimeWindowArrayReservoir reservoir =
+                new StripedSlidingTimeWindowArrayReservoir(10, NANOSECONDS, clock, 4);
+
+        when(clock.getTick()).thenReturn(0L);
+        reservoir.update(1);
+
+        when(clock.getTick()).thenReturn(5L);
+        reservoir.update(2);
+
+        when(clock.getTick()).thenReturn(10L);
+        reservoir.update(3);
+
+        when(clock.getTick()).thenReturn(15L);
+        reservoir.update(4);
+
+        when(clock.getTick()).thenReturn(20L);
+        reservoir.update(5);
+
+        assertThat(reservoir.getSnapshot().getValues())
+                .containsOnly(4, 5);
+        assertThat(reservoir.size())
+                .isEqualTo(2);
+    }
+
+    @Test
+    public void mergesTheMeasurementsOfAllThreads() throws Exception {
+        final StripedSlidingTimeWindowArrayReservoir reservoir =
+                new StripedSlidingTimeWindowArrayReservoir(1, SECONDS, Clock.defaultClock(), 4);
+
+        final List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            final long value = i;
+            threads.add(new Thread(() -> reservoir.update(value)));
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertThat(reservoir.getSnapshot().getValues())
+                .containsExactly(0, 1, 2, 3, 4, 5, 6, 7);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void requiresAtLeastOneStripe() {
+        new StripedSlidingTimeWindowArrayReservoir(1, SECONDS, Clock.defaultClock(), 0);
+    }
+}
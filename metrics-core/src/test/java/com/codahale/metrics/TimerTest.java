@@ -3,11 +3,16 @@ package com.codahale.metrics;
 import org.junit.Test;
 
 import java.time.Duration;
+import java.util.Arrays;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.assertj.core.api.Assertions.offset;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.same;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyZeroInteractions;
@@ -105,6 +110,18 @@ public class TimerTest {
         verify(reservoir).update(50000000);
     }
 
+    @Test
+    public void timesStartTicks() {
+        final long startTick = timer.startTick();
+
+        assertThat(timer.stop(startTick))
+                .isEqualTo(50000000);
+        assertThat(timer.getCount())
+                .isEqualTo(1);
+
+        verify(reservoir).update(50000000);
+    }
+
     @Test
     public void returnsTheSnapshotFromTheReservoir() {
         final Snapshot snapshot = mock(Snapshot.class);
@@ -158,4 +175,64 @@ public class TimerTest {
         verify(reservoir).update(50000000);
     }
 
+    @Test
+    public void updatesTheCountOnBatchUpdates() {
+        timer.update(new long[]{1, -1, 2, 3}, 0, 3, TimeUnit.SECONDS);
+
+        assertThat(timer.getCount())
+                .isEqualTo(2);
+
+        verify(reservoir).update(startsWith(1000000000, 2000000000), eq(0), eq(2));
+    }
+
+    @Test
+    public void passesBatchesOfNanosecondsThroughWithoutCopying() {
+        final long[] durations = {-1, 10, 20, -2};
+
+        timer.update(durations, 1, 2, TimeUnit.NANOSECONDS);
+
+        assertThat(timer.getCount())
+                .isEqualTo(2);
+
+        verify(reservoir).update(same(durations), eq(1), eq(2));
+    }
+
+    @Test
+    public void rejectsBatchesOfNanosecondsOutOfBounds() {
+        assertThatThrownBy(() -> timer.update(new long[]{1, 2}, 0, -1, TimeUnit.NANOSECONDS))
+                .isInstanceOf(IndexOutOfBoundsException.class);
+        assertThatThrownBy(() -> timer.update(new long[]{1, 2}, 1, 2, TimeUnit.NANOSECONDS))
+                .isInstanceOf(IndexOutOfBoundsException.class);
+
+        assertThat(timer.getCount())
+                .isZero();
+        verifyZeroInteractions(reservoir);
+    }
+
+    @Test
+    public void rejectsBatchesOfOtherUnitsOutOfBounds() {
+        assertThatThrownBy(() -> timer.update(new long[]{1, 2}, 0, -1, TimeUnit.SECONDS))
+                .isInstanceOf(IndexOutOfBoundsException.class);
+        assertThatThrownBy(() -> timer.update(new long[]{1, 2}, -1, 2, TimeUnit.SECONDS))
+                .isInstanceOf(IndexOutOfBoundsException.class);
+
+        assertThat(timer.getCount())
+                .isZero();
+        verifyZeroInteractions(reservoir);
+    }
+
+    @Test
+    public void ignoresBatchesOfNegativeValues() {
+        timer.update(new long[]{-1, -2}, 0, 2, TimeUnit.SECONDS);
+
+        assertThat(timer.getCount())
+                .isZero();
+
+        verifyZeroInteractions(reservoir);
+    }
+
+    private static long[] startsWith(long... expected) {
+        return argThat(values -> values.length >= expected.length
+                && Arrays.equals(Arrays.copyOf(values, expected.length), expected));
+    }
 }
@@ -3,6 +3,7 @@ package com.codahale.metrics;
 import org.junit.Test;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.offset;
 
 public class UniformReservoirTest {
     @Test
@@ -28,4 +29,89 @@ public class UniformReservoirTest {
         }
     }
 
+    @Test
+    public void aSkippingReservoirOf100OutOf1000Elements() {
+        final UniformReservoir reservoir = new UniformReservoir(100, true);
+        for (int i = 0; i < 1000; i++) {
+            reservoir.update(i);
+        }
+
+        final Snapshot snapshot = reservoir.getSnapshot();
+
+        assertThat(reservoir.size())
+                .isEqualTo(100);
+
+        assertThat(snapshot.size())
+                .isEqualTo(100);
+
+        for (double i : snapshot.getValues()) {
+            assertThat(i)
+                    .isLessThan(1000)
+                    .isGreaterThanOrEqualTo(0);
+        }
+    }
+
+    @Test
+    public void aSkippingReservoirKeepsAUniformSample() {
+        double sumOfMeans = 0;
+        for (int run = 0; run < 100; run++) {
+            final UniformReservoir reservoir = new UniformReservoir(100, true);
+            for (int i = 0; i < 10_000; i++) {
+                reservoir.update(i);
+            }
+            sumOfMeans += reservoir.getSnapshot().getMean();
+        }
+
+        assertThat(sumOfMeans / 100)
+                .isCloseTo(4999.5, offset(250.0));
+    }
+
+    @Test
+    public void aSkippingReservoirSamplesEveryPartOfTheStreamEvenly() {
+        // 200 samples of 100 out of 10,000 values, counted in 10 buckets of 1,000 values
+        final long[] buckets = new long[10];
+        for (int run = 0; run < 200; run++) {
+            final UniformReservoir reservoir = new UniformReservoir(100, true);
+            for (int i = 0; i < 10_000; i++) {
+                reservoir.update(i);
+            }
+            for (long value : reservoir.getSnapshot().getValues()) {
+                buckets[(int) (value / 1_000)]++;
+            }
+        }
+
+        final double expected = 200 * 100 / 10.0;
+        double chiSquare = 0;
+        for (long bucket : buckets) {
+            chiSquare += (bucket - expected) * (bucket - expected) / expected;
+        }
+
+        // the 99.999th percentile of the chi-square distribution with 9 degrees of freedom is 39.3,
+        // and sampling without replacement only makes the statistic smaller
+        assertThat(chiSquare)
+                .isLessThan(39.3);
+    }
+
+    @Test
+    public void aReservoirOf100OutOf1000BatchedElements() {
+        final UniformReservoir reservoir = new UniformReservoir(100);
+        final long[] values = new long[1000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = i;
+        }
+        for (int i = 0; i < values.length; i += 50) {
+            reservoir.update(values, i, 50);
+        }
+
+        final Snapshot snapshot = reservoir.getSnapshot();
+
+        assertThat(snapshot.size())
+                .isEqualTo(100);
+
+        for (double i : snapshot.getValues()) {
+            assertThat(i)
+                    .isLessThan(1000)
+                    .isGreaterThanOrEqualTo(0);
+        }
+    }
 }
@@ -4,7 +4,9 @@ import org.junit.Test;
 
 import java.io.ByteArrayOutputStream;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Random;
 
 import com.codahale.metrics.WeightedSnapshot.WeightedSample;
 
@@ -221,4 +223,50 @@ public class WeightedSnapshotTest {
         assertThat(weightedSnapshot.getMean()).isEqualTo(0);
     }
 
+    @Test
+    public void primitiveArraysGiveTheSameSnapshotAsSamples() {
+        final Snapshot other = new WeightedSnapshot(new long[]{5, 1, 2, 3, 4}, new double[]{1, 2, 3, 2, 2});
+
+        assertThat(other.getValues())
+                .containsExactly(snapshot.getValues());
+        assertThat(other.getMedian())
+                .isEqualTo(snapshot.getMedian());
+        assertThat(other.getMean())
+                .isEqualTo(snapshot.getMean());
+        assertThat(other.getStdDev())
+                .isEqualTo(snapshot.getStdDev());
+    }
+
+    @Test
+    public void sortsLargePrimitiveArraysWithTheirWeights() {
+        final Random random = new Random(42);
+        final long[] values = new long[1028];
+        final double[] weights = new double[values.length];
+        for (int i = 0; i < values.length; i++) {
+            // plenty of duplicates, and every value is weighted by itself
+            values[i] = random.nextInt(100);
+            weights[i] = values[i];
+        }
+        final long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        double sum = 0;
+        double sumOfSquares = 0;
+        for (long value : values) {
+            sum += value;
+            sumOfSquares += value * value;
+        }
+
+        final Snapshot other = new WeightedSnapshot(values, weights);
+
+        assertThat(other.getValues())
+                .containsExactly(sorted);
+        assertThat(other.getMean())
+                .isEqualTo(sumOfSquares / sum, offset(0.0001));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsMismatchedPrimitiveArrays() {
+        new WeightedSnapshot(new long[]{1, 2}, new double[]{1});
+    }
+
 }
@@ -189,6 +189,8 @@ public class GraphiteReporter extends ScheduledReporter {
          * With tags: `my.metric;metricattribute=p99`
          *
          * Note that this setting only modifies the metric attribute, and will not convert any other portion of the metric name to use tags.
+         * Metrics registered under a tagged {@link com.codahale.metrics.MetricName}, such as `my.metric;method=GET`, are always reported with their tags,
+         * either as `my.metric.p99;method=GET` or as `my.metric;method=GET;metricattribute=p99`.
          * For mor information on Graphite tag support see https://graphite.readthedocs.io/en/latest/tags.html
          * See {@link MetricAttribute}.
          *
@@ -509,6 +511,11 @@ public class GraphiteReporter extends ScheduledReporter {
         if (addMetricAttributesAsTags){
             return name + ";metricattribute=" + metricAttribute;
         }
+        final int tags = name.indexOf(';');
+        if (tags >= 0) {
+            // the tags of a tagged name follow the whole path
+            return name.substring(0, tags) + "." + metricAttribute + name.substring(tags);
+        }
         return name + "." + metricAttribute;
     }
 
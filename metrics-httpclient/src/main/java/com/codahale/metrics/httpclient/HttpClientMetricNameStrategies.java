@@ -14,9 +14,19 @@ import static com.codahale.metrics.MetricRegistry.name;
 public class HttpClientMetricNameStrategies {
 
     public static final HttpClientMetricNameStrategy METHOD_ONLY =
-        (name, request) -> name(HttpClient.class,
-            name,
-            methodNameString(request));
+        new HttpClientMetricNameStrategy() {
+            @Override
+            public String getNameFor(String name, HttpRequest request) {
+                return name(HttpClient.class,
+                        name,
+                        methodNameString(request));
+            }
+
+            @Override
+            public Object getCacheKeyFor(HttpRequest request) {
+                return request.getRequestLine().getMethod();
+            }
+        };
 
     public static final HttpClientMetricNameStrategy HOST_AND_METHOD =
         (name, request) -> name(HttpClient.class,
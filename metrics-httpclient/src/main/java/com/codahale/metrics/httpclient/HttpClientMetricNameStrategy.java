@@ -9,6 +9,20 @@ public interface HttpClientMetricNameStrategy {
 
     String getNameFor(String name, HttpRequest request);
 
+    /**
+     * Returns a key which identifies the name returned by {@link #getNameFor(String, HttpRequest)}
+     * for the given request, so that instrumented executors can resolve the name once per key and
+     * keep the resolved timer, instead of building the name for every request. The number of
+     * distinct keys must be bounded.
+     *
+     * @param request the request
+     * @return the key of the name of the request, or {@code null} if the name has to be built for
+     * every request
+     */
+    default Object getCacheKeyFor(HttpRequest request) {
+        return null;
+    }
+
     default String getNameFor(String name, Exception exception) {
         return MetricRegistry.name(HttpClient.class,
                 name,
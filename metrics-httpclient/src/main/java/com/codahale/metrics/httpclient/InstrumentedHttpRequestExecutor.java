@@ -1,5 +1,6 @@
 package com.codahale.metrics.httpclient;
 
+import com.codahale.metrics.MetricName;
 import com.codahale.metrics.MetricRegistry;
 import com.codahale.metrics.Timer;
 import org.apache.http.HttpClientConnection;
@@ -12,11 +13,14 @@ import org.apache.http.protocol.HttpRequestExecutor;
 import com.codahale.metrics.Meter;
 
 import java.io.IOException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 public class InstrumentedHttpRequestExecutor extends HttpRequestExecutor {
     private final MetricRegistry registry;
     private final HttpClientMetricNameStrategy metricNameStrategy;
     private final String name;
+    private final ConcurrentMap<Object, MetricName> timerNames = new ConcurrentHashMap<>();
 
     public InstrumentedHttpRequestExecutor(MetricRegistry registry,
                                            HttpClientMetricNameStrategy metricNameStrategy) {
@@ -41,19 +45,32 @@ public class InstrumentedHttpRequestExecutor extends HttpRequestExecutor {
 
     @Override
     public HttpResponse execute(HttpRequest request, HttpClientConnection conn, HttpContext context) throws HttpException, IOException {
-        final Timer.Context timerContext = timer(request).time();
+        final Timer timer = timer(request);
+        final long startTick = timer.startTick();
         try {
             return super.execute(request, conn, context);
         } catch (HttpException | IOException e) {
             meter(e).mark();
             throw e;
         } finally {
-            timerContext.stop();
+            timer.stop(startTick);
         }
     }
 
     private Timer timer(HttpRequest request) {
-        return registry.timer(metricNameStrategy.getNameFor(name, request));
+        final Object key = metricNameStrategy.getCacheKeyFor(request);
+        if (key == null) {
+            return registry.timer(metricNameStrategy.getNameFor(name, request));
+        }
+        MetricName timerName = timerNames.get(key);
+        if (timerName == null) {
+            timerName = MetricName.of(metricNameStrategy.getNameFor(name, request));
+            final MetricName existing = timerNames.putIfAbsent(key, timerName);
+            if (existing != null) {
+                timerName = existing;
+            }
+        }
+        return registry.resolveTimer(timerName);
     }
 
     private Meter meter(Exception e) {
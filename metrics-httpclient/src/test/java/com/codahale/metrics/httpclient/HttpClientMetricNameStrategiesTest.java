@@ -16,6 +16,7 @@ import static com.codahale.metrics.httpclient.HttpClientMetricNameStrategies.MET
 import static com.codahale.metrics.httpclient.HttpClientMetricNameStrategies.PATH_AND_METHOD;
 import static com.codahale.metrics.httpclient.HttpClientMetricNameStrategies.QUERYLESS_URL_AND_METHOD;
 import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
 import static org.junit.Assert.assertThat;
 
 public class HttpClientMetricNameStrategiesTest {
@@ -110,4 +111,16 @@ public class HttpClientMetricNameStrategiesTest {
 
         return wrapper;
     }
+
+    @Test
+    public void methodOnlyIsCachedByMethod() {
+        assertThat(METHOD_ONLY.getCacheKeyFor(new HttpGet("/whatever")),
+                is("GET"));
+    }
+
+    @Test
+    public void hostAndMethodIsNotCached() {
+        assertThat(HOST_AND_METHOD.getCacheKeyFor(new HttpPost("http://my.host.com/whatever")),
+                is(nullValue()));
+    }
 }
@@ -1,6 +1,7 @@
 package com.codahale.metrics.httpclient5;
 
 import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricName;
 import com.codahale.metrics.MetricRegistry;
 import com.codahale.metrics.Timer;
 import org.apache.hc.core5.http.ClassicHttpRequest;
@@ -16,11 +17,14 @@ import org.apache.hc.core5.http.protocol.HttpContext;
 import org.apache.hc.core5.util.Timeout;
 
 import java.io.IOException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 public class InstrumentedHttpRequestExecutor extends HttpRequestExecutor {
     private final MetricRegistry registry;
     private final HttpClientMetricNameStrategy metricNameStrategy;
     private final String name;
+    private final ConcurrentMap<Object, MetricName> timerNames = new ConcurrentHashMap<>();
 
     public InstrumentedHttpRequestExecutor(MetricRegistry registry,
                                            HttpClientMetricNameStrategy metricNameStrategy) {
@@ -57,19 +61,32 @@ public class InstrumentedHttpRequestExecutor extends HttpRequestExecutor {
      */
     @Override
     public ClassicHttpResponse execute(ClassicHttpRequest request, HttpClientConnection conn, HttpResponseInformationCallback informationCallback, HttpContext context) throws IOException, HttpException {
-        final Timer.Context timerContext = timer(request).time();
+        final Timer timer = timer(request);
+        final long startTick = timer.startTick();
         try {
             return super.execute(request, conn, informationCallback, context);
         } catch (HttpException | IOException e) {
             meter(e).mark();
             throw e;
         } finally {
-            timerContext.stop();
+            timer.stop(startTick);
         }
     }
 
     private Timer timer(HttpRequest request) {
-        return registry.timer(metricNameStrategy.getNameFor(name, request));
+        final Object key = metricNameStrategy.getCacheKeyFor(request);
+        if (key == null) {
+            return registry.timer(metricNameStrategy.getNameFor(name, request));
+        }
+        MetricName timerName = timerNames.get(key);
+        if (timerName == null) {
+            timerName = MetricName.of(metricNameStrategy.getNameFor(name, request));
+            final MetricName existing = timerNames.putIfAbsent(key, timerName);
+            if (existing != null) {
+                timerName = existing;
+            }
+        }
+        return registry.resolveTimer(timerName);
     }
 
     private Meter meter(Exception e) {
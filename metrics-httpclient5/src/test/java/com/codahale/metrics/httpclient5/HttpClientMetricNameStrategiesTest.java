@@ -15,6 +15,7 @@ import static com.codahale.metrics.httpclient5.HttpClientMetricNameStrategies.HO
 import static com.codahale.metrics.httpclient5.HttpClientMetricNameStrategies.METHOD_ONLY;
 import static com.codahale.metrics.httpclient5.HttpClientMetricNameStrategies.QUERYLESS_URL_AND_METHOD;
 import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
 import static org.junit.Assert.assertThat;
 
 public class HttpClientMetricNameStrategiesTest {
@@ -83,4 +84,16 @@ public class HttpClientMetricNameStrategiesTest {
 
         return wrapper;
     }
+
+    @Test
+    public void methodOnlyIsCachedByMethod() {
+        assertThat(METHOD_ONLY.getCacheKeyFor(new HttpGet("/whatever")),
+                is("GET"));
+    }
+
+    @Test
+    public void hostAndMethodIsNotCached() {
+        assertThat(HOST_AND_METHOD.getCacheKeyFor(new HttpPost("http://my.host.com/whatever")),
+                is(nullValue()));
+    }
 }
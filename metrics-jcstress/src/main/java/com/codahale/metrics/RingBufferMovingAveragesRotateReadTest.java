@@ -0,0 +1,44 @@
+package com.codahale.metrics;
+
+import org.openjdk.jcstress.annotations.Actor;
+import org.openjdk.jcstress.annotations.Expect;
+import org.openjdk.jcstress.annotations.JCStressTest;
+import org.openjdk.jcstress.annotations.Outcome;
+import org.openjdk.jcstress.annotations.State;
+import org.openjdk.jcstress.infra.results.JJ_Result;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+@JCStressTest
+@Outcome(id = "5, 5", expect = Expect.ACCEPTABLE, desc = "Read before the rotation")
+@Outcome(id = "0, 5", expect = Expect.ACCEPTABLE, desc = "Read after the rotation")
+@Outcome(expect = Expect.FORBIDDEN, desc = "Read a half moved bucket")
+@State
+public class RingBufferMovingAveragesRotateReadTest {
+    private final AtomicLong ticks = new AtomicLong(0);
+    private final RingBufferMovingAverages movingAverages;
+
+    public RingBufferMovingAveragesRotateReadTest() {
+        movingAverages = new RingBufferMovingAverages(new Clock() {
+            @Override
+            public long getTick() {
+                return ticks.get();
+            }
+        });
+        movingAverages.update(5);
+    }
+
+    @Actor
+    public void actor1() {
+        // the events of the first second fall out of the one-minute window
+        ticks.set(TimeUnit.SECONDS.toNanos(60));
+        movingAverages.tickIfNecessary();
+    }
+
+    @Actor
+    public void actor2(JJ_Result r) {
+        r.r1 = (long) movingAverages.getM1Rate();
+        r.r2 = (long) movingAverages.getM5Rate();
+    }
+}
@@ -0,0 +1,51 @@
+package com.codahale.metrics;
+
+import org.openjdk.jcstress.annotations.Actor;
+import org.openjdk.jcstress.annotations.Arbiter;
+import org.openjdk.jcstress.annotations.Expect;
+import org.openjdk.jcstress.annotations.JCStressTest;
+import org.openjdk.jcstress.annotations.Outcome;
+import org.openjdk.jcstress.annotations.State;
+import org.openjdk.jcstress.infra.results.J_Result;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+@JCStressTest
+@Outcome(id = "3", expect = Expect.ACCEPTABLE, desc = "No event was lost while the buckets were moved")
+@Outcome(expect = Expect.FORBIDDEN, desc = "An event was lost or counted twice")
+@State
+public class RingBufferMovingAveragesUpdateRotateTest {
+    private final AtomicLong ticks = new AtomicLong(0);
+    private final RingBufferMovingAverages movingAverages;
+
+    public RingBufferMovingAveragesUpdateRotateTest() {
+        movingAverages = new RingBufferMovingAverages(new Clock() {
+            @Override
+            public long getTick() {
+                return ticks.get();
+            }
+        });
+    }
+
+    @Actor
+    public void actor1() {
+        movingAverages.update(1);
+    }
+
+    @Actor
+    public void actor2() {
+        movingAverages.update(2);
+    }
+
+    @Actor
+    public void actor3() {
+        ticks.set(TimeUnit.SECONDS.toNanos(1));
+        movingAverages.tickIfNecessary();
+    }
+
+    @Arbiter
+    public void arbiter(J_Result r) {
+        r.r1 = (long) movingAverages.getM15Rate();
+    }
+}
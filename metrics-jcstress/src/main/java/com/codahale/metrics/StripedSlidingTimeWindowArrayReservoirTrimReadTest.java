@@ -0,0 +1,88 @@
+package com.codahale.metrics;
+
+import org.openjdk.jcstress.annotations.Actor;
+import org.openjdk.jcstress.annotations.Expect;
+import org.openjdk.jcstress.annotations.JCStressTest;
+import org.openjdk.jcstress.annotations.Outcome;
+import org.openjdk.jcstress.annotations.State;
+import org.openjdk.jcstress.infra.results.L_Result;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+@JCStressTest
+@Outcome(
+    id = "consistent",
+    expect = Expect.ACCEPTABLE,
+    desc = "Every stripe was read in one of the states a SlidingTimeWindowArrayReservoir can be read in " +
+        "while it is trimmed"
+    )
+@Outcome(
+    expect = Expect.FORBIDDEN,
+    desc = "A stripe was read in a state a single reservoir can't be read in"
+    )
+@State
+public class StripedSlidingTimeWindowArrayReservoirTrimReadTest {
+    private static final int STRIPES = 4;
+    // the snapshots SlidingTimeWindowArrayReservoirTrimReadTest accepts for a single reservoir, plus
+    // the untrimmed one of a stripe which recorded nothing at the last tick, and so still keeps the
+    // value recorded exactly one window earlier
+    private static final long[][] STATES = {
+        {239, 240, 241, 242, 243, 244, 245, 246, 247, 248, 249},
+        {240, 241, 242, 243, 244, 245, 246, 247, 248, 249},
+        {243, 244, 245, 246, 247, 248, 249},
+        {244, 245, 246, 247, 248, 249},
+        {243, 244, 245, 246, 247, 248}
+    };
+
+    private final AtomicLong ticks = new AtomicLong(0);
+    private final StripedSlidingTimeWindowArrayReservoir reservoir;
+
+    public StripedSlidingTimeWindowArrayReservoirTrimReadTest() {
+        reservoir = new StripedSlidingTimeWindowArrayReservoir(10, TimeUnit.NANOSECONDS, new Clock() {
+            @Override
+            public long getTick() {
+                return ticks.get();
+            }
+        }, STRIPES);
+
+        // spread the values over every stripe, as the constructor runs on a single thread
+        for (int i = 0; i < 250; i++) {
+            ticks.set(i);
+            reservoir.update(i % STRIPES, i);
+        }
+    }
+
+    @Actor
+    public void actor1(L_Result r) {
+        final long[] values = reservoir.getSnapshot().getValues();
+        r.r1 = isConsistent(values) ? "consistent" : Arrays.toString(values);
+    }
+
+    @Actor
+    public void actor2() {
+        ticks.set(253);
+        reservoir.trim();
+    }
+
+    /*
+     * The stripes are trimmed one after the other, so each of them may be read in a different state.
+     */
+    private static boolean isConsistent(long[] values) {
+        for (int stripe = 0; stripe < STRIPES; stripe++) {
+            boolean matched = false;
+            for (long[] state : STATES) {
+                matched |= Arrays.equals(valuesOf(values, stripe), valuesOf(state, stripe));
+            }
+            if (!matched) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long[] valuesOf(long[] values, int stripe) {
+        return Arrays.stream(values).filter(value -> value % STRIPES == stripe).toArray();
+    }
+}
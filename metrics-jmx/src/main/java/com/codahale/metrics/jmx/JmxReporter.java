@@ -1,5 +1,6 @@
 package com.codahale.metrics.jmx;
 
+import com.codahale.metrics.AsyncMetricRegistryListener;
 import com.codahale.metrics.Counter;
 import com.codahale.metrics.Gauge;
 import com.codahale.metrics.Histogram;
@@ -56,6 +57,7 @@ public class JmxReporter implements Reporter, Closeable {
         private String domain;
         private Map<String, TimeUnit> specificDurationUnits;
         private Map<String, TimeUnit> specificRateUnits;
+        private boolean registerAsynchronously;
 
         private Builder(MetricRegistry registry) {
             this.registry = registry;
@@ -147,6 +149,20 @@ public class JmxReporter implements Reporter, Closeable {
             return this;
         }
 
+        /**
+         * Register and unregister MBeans on a dedicated thread instead of on the threads which add
+         * and remove metrics, so that creating a metric never waits for the {@link MBeanServer}.
+         * MBeans then appear shortly after their metrics are registered.
+         *
+         * @param registerAsynchronously whether to register MBeans asynchronously
+         * @return {@code this}
+         * @see AsyncMetricRegistryListener
+         */
+        public Builder registerAsynchronously(boolean registerAsynchronously) {
+            this.registerAsynchronously = registerAsynchronously;
+            return this;
+        }
+
         /**
          * Builds a {@link JmxReporter} with the given properties.
          *
@@ -157,7 +173,8 @@ public class JmxReporter implements Reporter, Closeable {
             if (mBeanServer == null) {
                 mBeanServer = ManagementFactory.getPlatformMBeanServer();
             }
-            return new JmxReporter(mBeanServer, domain, registry, filter, timeUnits, objectNameFactory);
+            return new JmxReporter(mBeanServer, domain, registry, filter, timeUnits, objectNameFactory,
+                    registerAsynchronously);
         }
     }
 
@@ -714,29 +731,41 @@ public class JmxReporter implements Reporter, Closeable {
 
     private final MetricRegistry registry;
     private final JmxListener listener;
+    private final boolean registerAsynchronously;
+    private MetricRegistryListener registeredListener;
 
     private JmxReporter(MBeanServer mBeanServer,
                         String domain,
                         MetricRegistry registry,
                         MetricFilter filter,
                         MetricTimeUnits timeUnits,
-                        ObjectNameFactory objectNameFactory) {
+                        ObjectNameFactory objectNameFactory,
+                        boolean registerAsynchronously) {
         this.registry = registry;
         this.listener = new JmxListener(mBeanServer, domain, filter, timeUnits, objectNameFactory);
+        this.registerAsynchronously = registerAsynchronously;
+        this.registeredListener = listener;
     }
 
     /**
      * Starts the reporter.
      */
     public void start() {
-        registry.addListener(listener);
+        if (registerAsynchronously) {
+            registeredListener = new AsyncMetricRegistryListener(listener);
+        }
+        registry.addListener(registeredListener);
     }
 
     /**
      * Stops the reporter.
      */
     public void stop() {
-        registry.removeListener(listener);
+        registry.removeListener(registeredListener);
+        if (registeredListener instanceof AsyncMetricRegistryListener) {
+            // let the pending registrations finish before unregistering everything
+            ((AsyncMetricRegistryListener) registeredListener).close();
+        }
         listener.unregisterAll();
     }
 
@@ -290,6 +290,28 @@ public class JmxReporterTest {
 
     }
 
+    @Test
+    public void registersMBeansAsynchronously() throws Exception {
+        MBeanServer mockedMBeanServer = mock(MBeanServer.class);
+        when(mockedMBeanServer.registerMBean(any(Object.class), any(ObjectName.class))).thenReturn(new ObjectInstance("DOMAIN:key=value", "className"));
+
+        MetricRegistry testRegistry = new MetricRegistry();
+        JmxReporter testJmxReporter = JmxReporter.forRegistry(testRegistry)
+                .registerWith(mockedMBeanServer)
+                .inDomain(name)
+                .registerAsynchronously(true)
+                .build();
+
+        testJmxReporter.start();
+        testRegistry.timer("test");
+
+        // delivers the pending registration before unregistering
+        testJmxReporter.stop();
+
+        verify(mockedMBeanServer).registerMBean(any(Object.class), any(ObjectName.class));
+        verify(mockedMBeanServer).unregisterMBean(new ObjectName("DOMAIN:key=value"));
+    }
+
     @Test
     public void testJmxMetricNameWithAsterisk() {
         MetricRegistry metricRegistry = new MetricRegistry();
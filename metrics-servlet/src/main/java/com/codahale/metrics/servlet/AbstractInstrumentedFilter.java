@@ -106,7 +106,7 @@ public abstract class AbstractInstrumentedFilter implements Filter {
         final StatusExposingServletResponse wrappedResponse =
                 new StatusExposingServletResponse((HttpServletResponse) response);
         activeRequests.inc();
-        final Timer.Context context = requestTimer.time();
+        final long startTick = requestTimer.startTick();
         boolean error = false;
         try {
             chain.doFilter(request, wrappedResponse);
@@ -115,9 +115,9 @@ public abstract class AbstractInstrumentedFilter implements Filter {
             throw e;
         } finally {
             if (!error && request.isAsyncStarted()) {
-                request.getAsyncContext().addListener(new AsyncResultListener(context));
+                request.getAsyncContext().addListener(new AsyncResultListener(startTick));
             } else {
-                context.stop();
+                requestTimer.stop(startTick);
                 activeRequests.dec();
                 if (error) {
                     errorsMeter.mark();
@@ -177,18 +177,18 @@ public abstract class AbstractInstrumentedFilter implements Filter {
     }
 
     private class AsyncResultListener implements AsyncListener {
-        private Timer.Context context;
+        private final long startTick;
         private boolean done = false;
 
-        public AsyncResultListener(Timer.Context context) {
-            this.context = context;
+        public AsyncResultListener(long startTick) {
+            this.startTick = startTick;
         }
 
         @Override
         public void onComplete(AsyncEvent event) throws IOException {
             if (!done) {
                 HttpServletResponse suppliedResponse = (HttpServletResponse) event.getSuppliedResponse();
-                context.stop();
+                requestTimer.stop(startTick);
                 activeRequests.dec();
                 markMeterForStatusCode(suppliedResponse.getStatus());
             }
@@ -196,7 +196,7 @@ public abstract class AbstractInstrumentedFilter implements Filter {
 
         @Override
         public void onTimeout(AsyncEvent event) throws IOException {
-            context.stop();
+            requestTimer.stop(startTick);
             activeRequests.dec();
             timeoutsMeter.mark();
             done = true;
@@ -204,7 +204,7 @@ public abstract class AbstractInstrumentedFilter implements Filter {
 
         @Override
         public void onError(AsyncEvent event) throws IOException {
-            context.stop();
+            requestTimer.stop(startTick);
             activeRequests.dec();
             errorsMeter.mark();
             done = true;